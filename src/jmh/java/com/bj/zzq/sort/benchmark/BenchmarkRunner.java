@@ -0,0 +1,145 @@
+package com.bj.zzq.sort.benchmark;
+
+import com.bj.zzq.sort.IntSortAlgorithm;
+import com.bj.zzq.sort.SortAlgorithm;
+import com.bj.zzq.sort.SortMetrics;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Defaults;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.regex.Pattern;
+
+/**
+ * 压测入口，默认打开GC/分配率统计(gc.alloc.rate.norm即每次排序分配的字节数)。
+ * 支持JMH的命令行参数，例如只跑部分组合：java -jar target/benchmarks.jar IntSortBenchmark -p size=1000000 -p distribution=UNIFORM
+ * JMH的@Param是全组合，平方级算法也会排到1亿个数；这里按每个算法的maxSize分组，同一组的算法支持的size相同，
+ * 每组单独跑一次Runner，只传该组允许的size，超过maxSize的组合不会运行。最后把各组结果合在一起输出和写结果文件(-rf/-rff)。
+ * 并行度也按同样的方式分组：isParallel的算法默认按1和CPU核数各跑一遍(-p parallelism=...可以指定)，其他算法只跑1。
+ * 带-Dsort.metrics=true启动时，SortBenchmark的fork也打开统计，并用SortMetricsProfiler输出每次排序的比较、移动等计数
+ */
+public class BenchmarkRunner {
+    private static final List<Class<?>> BENCHMARKS = Arrays.<Class<?>>asList(SortBenchmark.class, IntSortBenchmark.class);
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+        if (commandLine.shouldList()) {
+            new Runner(commandLine).list();
+            return;
+        }
+        List<RunResult> results = new ArrayList<>();
+        results.addAll(run(commandLine, SortBenchmark.class, SortAlgorithm.values(), SortAlgorithm::getMaxSize,
+                SortAlgorithm::isParallel));
+        results.addAll(run(commandLine, IntSortBenchmark.class, IntSortAlgorithm.values(), IntSortAlgorithm::getMaxSize,
+                IntSortAlgorithm::isParallel));
+        if (results.isEmpty()) {
+            return;
+        }
+        System.out.println();
+        System.out.println("全部结果：");
+        ResultFormatFactory.getInstance(ResultFormatType.TEXT, System.out).writeOut(results);
+        //每组运行时JMH都会按-rf/-rff把本组结果写一遍，最后用全部结果覆盖
+        if (commandLine.getResult().hasValue() || commandLine.getResultFormat().hasValue()) {
+            ResultFormatType format = commandLine.getResultFormat().orElse(Defaults.RESULT_FORMAT);
+            String file = commandLine.getResult().orElse(Defaults.RESULT_FILE_PREFIX + "." + format.toString().toLowerCase());
+            ResultFormatFactory.getInstance(format, file).writeOut(results);
+        }
+    }
+
+    private static <E extends Enum<E>> List<RunResult> run(CommandLineOptions commandLine, Class<?> benchmark,
+                                                           E[] algorithms, ToIntFunction<E> maxSize,
+                                                           Predicate<E> parallel) throws RunnerException {
+        List<RunResult> results = new ArrayList<>();
+        if (!selected(commandLine, benchmark)) {
+            return results;
+        }
+        Collection<String> names = commandLine.getParameter("algorithm").orElse(null);
+        List<String> sizes = new ArrayList<>(commandLine.getParameter("size").orElse(defaultSizes(benchmark)));
+        //单核机器上两个默认值相同，去重
+        List<String> parallelisms = new ArrayList<>(new LinkedHashSet<>(commandLine.getParameter("parallelism")
+                .orElse(Arrays.asList("1", String.valueOf(Runtime.getRuntime().availableProcessors())))));
+        //(允许的size列表, 并行度列表) -> 算法，保持枚举顺序
+        Map<List<List<String>>, List<String>> groups = new LinkedHashMap<>();
+        for (E algorithm : algorithms) {
+            if (names != null && !names.contains(algorithm.name())) {
+                continue;
+            }
+            List<String> allowed = new ArrayList<>();
+            for (String size : sizes) {
+                if (Integer.parseInt(size) <= maxSize.applyAsInt(algorithm)) {
+                    allowed.add(size);
+                }
+            }
+            if (!allowed.isEmpty()) {
+                //不支持并行的算法设了并行度也是单线程，多跑几遍只是重复
+                List<String> threads = parallel.test(algorithm) ? parallelisms : Collections.singletonList("1");
+                groups.computeIfAbsent(Arrays.asList(allowed, threads), k -> new ArrayList<>()).add(algorithm.name());
+            }
+        }
+        for (Map.Entry<List<List<String>>, List<String>> group : groups.entrySet()) {
+            OptionsBuilder builder = new OptionsBuilder();
+            builder.parent(commandLine)
+                    .include(Pattern.quote(benchmark.getName()) + "\\.")
+                    .param("algorithm", group.getValue().toArray(new String[0]))
+                    .param("size", group.getKey().get(0).toArray(new String[0]))
+                    .param("parallelism", group.getKey().get(1).toArray(new String[0]))
+                    .addProfiler(GCProfiler.class);
+            //原生数组版本不埋点，只有SortBenchmark有计数
+            if (SortMetrics.ENABLED && benchmark == SortBenchmark.class) {
+                List<String> prepend = new ArrayList<>(commandLine.getJvmArgsPrepend().orElse(Collections.<String>emptyList()));
+                prepend.add("-Dsort.metrics=true");
+                builder.jvmArgsPrepend(prepend.toArray(new String[0]))
+                        .addProfiler(SortMetricsProfiler.class);
+            }
+            //命令行的include会和上面的合并，其他压测类的algorithm枚举不同，要排除掉
+            for (Class<?> other : BENCHMARKS) {
+                if (other != benchmark) {
+                    builder.exclude(Pattern.quote(other.getName()) + "\\.");
+                }
+            }
+            results.addAll(new Runner(builder.build()).run());
+        }
+        return results;
+    }
+
+    /**
+     * 命令行没有指定压测类时全部都跑，指定了就按JMH的规则(正则find)匹配
+     */
+    private static boolean selected(Options commandLine, Class<?> benchmark) {
+        List<String> includes = commandLine.getIncludes();
+        if (includes.isEmpty()) {
+            return true;
+        }
+        String name = benchmark.getName() + ".sort";
+        for (String include : includes) {
+            if (Pattern.compile(include).matcher(name).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> defaultSizes(Class<?> benchmark) {
+        try {
+            return Arrays.asList(benchmark.getField("size").getAnnotation(Param.class).value());
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(benchmark + "没有size参数", e);
+        }
+    }
+}
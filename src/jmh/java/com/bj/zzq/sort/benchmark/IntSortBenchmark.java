@@ -0,0 +1,69 @@
+package com.bj.zzq.sort.benchmark;
+
+import com.bj.zzq.sort.IntSort;
+import com.bj.zzq.sort.IntSortAlgorithm;
+import com.bj.zzq.sort.data.DatasetGenerator;
+import com.bj.zzq.sort.data.Distribution;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 所有IntSort实现的压测，参数和SortBenchmark一致，便于对比装箱和原生数组的差别。
+ * 1亿个int的原数组、目标数组和归并的中间数组共1.2G，fork出的JVM堆开到3G。
+ * 原生数组版本不埋点，没有SortMetricsProfiler的计数
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 2, jvmArgsAppend = "-Xmx3g")
+public class IntSortBenchmark {
+
+    @Param
+    public IntSortAlgorithm algorithm;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000", "100000000"})
+    public int size;
+
+    @Param
+    public Distribution distribution;
+
+    //并行度，BenchmarkRunner对isParallel的算法按1和CPU核数各跑一遍，其他算法只跑1
+    @Param({"1"})
+    public int parallelism;
+
+    private int[] origin;
+    private int[] target;
+    private IntSort sort;
+
+    @Setup(Level.Trial)
+    public void createData() {
+        if (size > algorithm.getMaxSize()) {
+            //BenchmarkRunner不会生成这样的组合，直接用JMH的命令行跑时才会到这里
+            throw new IllegalStateException(algorithm + "不支持" + size + "个数据的压测");
+        }
+        origin = new DatasetGenerator(SortBenchmark.SEED).generate(distribution, size);
+        target = new int[size];
+        sort = algorithm.create();
+        sort.setParallelism(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        sort.shutdown();
+    }
+
+    @Setup(Level.Invocation)
+    public void resetData() {
+        System.arraycopy(origin, 0, target, 0, size);
+        sort.setTarget(target);
+    }
+
+    @Benchmark
+    public int[] sort() {
+        sort.sort();
+        return target;
+    }
+}
@@ -0,0 +1,73 @@
+package com.bj.zzq.sort.benchmark;
+
+import com.bj.zzq.sort.Sort;
+import com.bj.zzq.sort.SortAlgorithm;
+import com.bj.zzq.sort.data.DatasetGenerator;
+import com.bj.zzq.sort.data.Distribution;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 所有Sort实现的压测，按算法、数据量、数据分布组合，超过算法maxSize的组合由BenchmarkRunner排除。
+ * 每次调用前都把数据恢复成同一份未排序的数据(排序是原地的，不能在一次Trial里反复排同一个数组)。
+ * Level.Invocation每次调用都要单独计时，JMH建议单次至少1毫秒；size=1000时一次排序只有几十微秒，
+ * 这部分开销占的比例看得出来，小规模的结果只适合同一规模内横向比较，不要和大规模的结果按n换算
+ * 1亿个Integer对象约1.6G，原数组、目标数组和归并的中间数组各0.4G，fork出的JVM堆开到8G。
+ * 比较、移动次数等计数见SortMetricsProfiler，用java -Dsort.metrics=true启动BenchmarkRunner时输出
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 2, jvmArgsAppend = "-Xmx8g")
+public class SortBenchmark {
+    static final long SEED = 20190408L;
+
+    @Param
+    public SortAlgorithm algorithm;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000", "100000000"})
+    public int size;
+
+    @Param
+    public Distribution distribution;
+
+    //并行度，BenchmarkRunner对isParallel的算法按1和CPU核数各跑一遍，其他算法只跑1
+    @Param({"1"})
+    public int parallelism;
+
+    private Integer[] origin;
+    private Integer[] target;
+    private Sort sort;
+
+    @Setup(Level.Trial)
+    public void createData() {
+        if (size > algorithm.getMaxSize()) {
+            //BenchmarkRunner不会生成这样的组合，直接用JMH的命令行跑时才会到这里
+            throw new IllegalStateException(algorithm + "不支持" + size + "个数据的压测");
+        }
+        origin = new DatasetGenerator(SEED).generateBoxed(distribution, size);
+        target = new Integer[size];
+        sort = algorithm.create();
+        sort.setParallelism(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        sort.shutdown();
+    }
+
+    @Setup(Level.Invocation)
+    public void resetData() {
+        System.arraycopy(origin, 0, target, 0, size);
+        sort.setTarget(target);
+    }
+
+    @Benchmark
+    public Integer[] sort() {
+        sort.sort();
+        return target;
+    }
+}
@@ -0,0 +1,51 @@
+package com.bj.zzq.sort.benchmark;
+
+import com.bj.zzq.sort.SortMetrics;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 把SortMetrics的计数作为JMH的次要结果输出，和gc.alloc.rate.norm一样跟着每个组合进结果文件。
+ * 在fork出的JVM里运行：每次迭代前reset，迭代后按这次迭代的调用次数折算成每次排序的计数(maxDepth取迭代内的最大值)。
+ * 被测JVM要带-Dsort.metrics=true才有计数，否则不输出；BenchmarkRunner在自己带了这个参数时会加上本profiler并传给fork
+ */
+public class SortMetricsProfiler implements InternalProfiler {
+
+    @Override
+    public String getDescription() {
+        return "SortMetrics计数(比较、移动、递归深度、扫描趟数、中间数组)，需要-Dsort.metrics=true";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        SortMetrics.reset();
+    }
+
+    @Override
+    public Collection<? extends Result<?>> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                          IterationResult result) {
+        SortMetrics metrics = SortMetrics.snapshot();
+        long ops = result.getMetadata().getAllOps();
+        if (metrics == null || ops == 0) {
+            return Collections.emptyList();
+        }
+        //中间数组在多次排序之间复用，通常只有Trial里的第一次排序分配，测量迭代里是0说明复用生效
+        List<ScalarResult> results = new ArrayList<>();
+        results.add(new ScalarResult("sort.comparisons", (double) metrics.getComparisons() / ops, "#/op", AggregationPolicy.AVG));
+        results.add(new ScalarResult("sort.moves", (double) metrics.getMoves() / ops, "#/op", AggregationPolicy.AVG));
+        results.add(new ScalarResult("sort.passes", (double) metrics.getPasses() / ops, "#/op", AggregationPolicy.AVG));
+        results.add(new ScalarResult("sort.scratch", (double) metrics.getScratchBytes() / ops, "B/op", AggregationPolicy.AVG));
+        results.add(new ScalarResult("sort.maxDepth", metrics.getMaxDepth(), "#", AggregationPolicy.MAX));
+        return results;
+    }
+}
@@ -0,0 +1,65 @@
+package com.bj.zzq.sort;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Sort、IntSort、LongSort、OffHeapIntSort共用的并行度和ForkJoinPool管理。
+ * 按并行度自己创建的pool归自己所有，换并行度、换成外部pool或调用shutdown时关闭；setPool传进来的pool由调用方负责关闭
+ */
+public abstract class AbstractParallelSort {
+    protected int parallelism = 1;//并行度，1表示单线程
+    private ForkJoinPool pool;
+    private boolean ownsPool;//pool是不是getPool按parallelism创建的
+
+    /**
+     * 并行度，大于1时支持并行的实现会把划分提交到ForkJoinPool执行，不支持的实现忽略这个设置
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism=" + parallelism);
+        }
+        //自己建的pool并行度没变时继续用，否则放掉，下次getPool时按新的并行度创建
+        if (pool != null && !(ownsPool && pool.getParallelism() == parallelism)) {
+            releasePool();
+        }
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * 使用调用方提供的ForkJoinPool，并行度跟随该pool，不会被这里关闭
+     */
+    public void setPool(ForkJoinPool pool) {
+        if (pool != this.pool) {
+            releasePool();
+            this.pool = pool;
+        }
+        this.parallelism = pool.getParallelism();
+    }
+
+    protected ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism);
+            ownsPool = true;
+        }
+        return pool;
+    }
+
+    /**
+     * 关闭自己创建的pool，不再并行排序时调用；之后再排序会重新创建
+     */
+    public void shutdown() {
+        releasePool();
+    }
+
+    private void releasePool() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+        pool = null;
+        ownsPool = false;
+    }
+}
@@ -1,23 +1,36 @@
 package com.bj.zzq.sort;
 
-import java.util.LinkedList;
+import java.util.Arrays;
 
 /**
  * @Author: zhaozhiqiang
  * @Date: 2019/4/8
- * @Description: 基数排序
+ * @Description: 基数排序。按二进制位分组(LSD)，每radixBits位一趟计数分配：
+ * 先一次遍历统计出所有趟的桶计数，做前缀和得到每个桶的起始位置，再在原数组和一个中间数组之间来回分配。
+ * 某一位上所有数都相同时整趟跳过；符号位取反之后再取位，负数也能正确排序
  */
 public class CardinalSort extends Sort {
-    private int cardinalNum;//基数
+    private int radixBits = 8;//每一趟处理的二进制位数，常用8/11/16
     private Integer[] target;//原数组
-    private LinkedList<Integer>[] tempList;
+    private Integer[] workSpace;//分配时的中间数组
+    private int[] count;//所有趟的计数，第p趟在[p*桶数, (p+1)*桶数)
 
+    /**
+     * 基数向上取到2的幂，例如10按16处理，即每趟4位
+     */
     public void setCardinalNum(int cardinalNum) {
-        this.cardinalNum = cardinalNum;
-        tempList = new LinkedList[cardinalNum];
-        for (int i = 0; i < tempList.length; i++) {
-            tempList[i] = new LinkedList<Integer>();
+        setRadixBits(radixBitsOf(cardinalNum));
+    }
+
+    public void setRadixBits(int radixBits) {
+        if (radixBits < 1 || radixBits > 16) {
+            throw new IllegalArgumentException("radixBits=" + radixBits);
         }
+        this.radixBits = radixBits;
+    }
+
+    public int getRadixBits() {
+        return radixBits;
     }
 
     public void setTarget(Integer[] target) {
@@ -25,39 +38,77 @@ public class CardinalSort extends Sort {
     }
 
     public void sort() {
-        //说明全部数据都在index=0的链表中时退出
-        int digit = 1;//从个位往前推
-        while (true) {
-            for (int i = 0; i < target.length; i++) {
-                int extractNum = extractDigitNum(target[i], digit);
-                tempList[extractNum].add(target[i]);
+        int length = target.length;
+        if (length < 2) {
+            return;
+        }
+        int buckets = 1 << radixBits;
+        int mask = buckets - 1;
+        int passes = (32 + radixBits - 1) / radixBits;
+        if (workSpace == null || workSpace.length < length) {
+            workSpace = new Integer[length];
+            if (SortMetrics.ENABLED) {
+                SortMetrics.scratch((long) length * SortMetrics.REFERENCE_BYTES);
             }
-            if (tempList[0].size() == target.length) {
-                copyToOrigin();
-                break;
+        }
+        if (count == null || count.length != passes * buckets) {
+            count = new int[passes * buckets];
+            if (SortMetrics.ENABLED) {
+                SortMetrics.scratch(4L * passes * buckets);
             }
-            copyToOrigin();
-            digit++;
+        } else {
+            Arrays.fill(count, 0);
         }
-
-    }
-
-    private void copyToOrigin() {
-        int index = 0;
-        for (int i = 0; i < tempList.length; i++) {
-            LinkedList<Integer> list = tempList[i];
-            while (!list.isEmpty()) {
-                target[index++] = list.remove();
+        for (int i = 0; i < length; i++) {
+            int key = target[i] ^ Integer.MIN_VALUE;
+            for (int p = 0, base = 0; p < passes; p++, base += buckets) {
+                count[base + ((key >>> (p * radixBits)) & mask)]++;
+            }
+        }
+        int firstKey = target[0] ^ Integer.MIN_VALUE;
+        Integer[] src = target;
+        Integer[] dst = workSpace;
+        for (int p = 0, base = 0; p < passes; p++, base += buckets) {
+            int shift = p * radixBits;
+            if (count[base + ((firstKey >>> shift) & mask)] == length) {
+                continue;
+            }
+            int sum = 0;
+            for (int b = base; b < base + buckets; b++) {
+                int c = count[b];
+                count[b] = sum;
+                sum += c;
+            }
+            for (int i = 0; i < length; i++) {
+                Integer value = src[i];
+                dst[count[base + (((value ^ Integer.MIN_VALUE) >>> shift) & mask)]++] = value;
+            }
+            Integer[] temp = src;
+            src = dst;
+            dst = temp;
+            if (SortMetrics.ENABLED) {
+                //基数排序不比较，每一趟把所有数写一遍
+                SortMetrics.moves(length);
+                SortMetrics.pass();
+            }
+        }
+        if (src != target) {
+            System.arraycopy(src, 0, target, 0, length);
+            if (SortMetrics.ENABLED) {
+                SortMetrics.moves(length);
             }
         }
     }
 
-    private int extractDigitNum(Integer target, int digit) {
-        String str = String.valueOf(target);
-        if (str.length() - digit < 0) {
-            return 0;
+    /**
+     * 基数对应的每趟位数：不小于基数的最小2的幂的指数，限制在[1,16]
+     */
+    static int radixBitsOf(int cardinalNum) {
+        if (cardinalNum < 2) {
+            throw new IllegalArgumentException("cardinalNum=" + cardinalNum);
         }
-        return Character.getNumericValue(str.charAt(str.length() - digit));
+        int bits = 32 - Integer.numberOfLeadingZeros(cardinalNum - 1);
+        return Math.min(bits, 16);
     }
 
     public void display() {
@@ -70,7 +121,7 @@ public class CardinalSort extends Sort {
     public static void main(String[] args) {
         CardinalSort cardinalSort = new CardinalSort();
         cardinalSort.setCardinalNum(10);
-        Integer[] array = {1232, 1321, 32, 43, 432, 5, 43, 543, 6546, 54, 2, 323, 21, 543, 543};
+        Integer[] array = {1232, 1321, 32, 43, 432, 5, 43, 543, 6546, 54, 2, 323, 21, 543, 543, -7, -1232, Integer.MIN_VALUE};
         cardinalSort.setTarget(array);
         cardinalSort.display();
         cardinalSort.sort();
@@ -1,5 +1,6 @@
 package com.bj.zzq.sort;
 
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -20,40 +21,34 @@ public class FindKthNum {
         kIndex = target.length - k;
     }
 
+    /**
+     * 原来总是取target[right]做枢纽，已排好序的输入会退化到O(n^2)，现在交给Selection，最坏也是线性
+     */
     public int findMedian() {
-        int left = 0;
-        int right = target.length - 1;
-        int index;
-        while ((index = partitionIt(left, right)) != kIndex) {
-            if (index > kIndex) {
-                right = index - 1;
-            } else {
-                left = index + 1;
-            }
-        }
-        return target[index];
+        Selection.select(target, 0, target.length - 1, kIndex);
+        return target[kIndex];
     }
 
-    private int partitionIt(int left, int right) {
-        int pivot = target[right];
-        int leftPart = left - 1;
-        int rightPart = right;
-        while (true) {
-            while (leftPart < rightPart && target[++leftPart] < pivot) ;
-            while (leftPart < rightPart && target[--rightPart] > pivot) ;
-            if (leftPart >= rightPart) {
-                break;
-            }
-            swap(leftPart, rightPart);
+    /**
+     * 一次求多个第k大，例如报表里同时要的p10、p50、p90、p99，比逐个调用findMedian少扫很多遍
+     *
+     * @param ks 每个都是第k大，顺序任意
+     * @return 和ks一一对应
+     */
+    public int[] findKthNums(int... ks) {
+        int n = target.length;
+        int[] indexes = new int[ks.length];
+        for (int i = 0; i < ks.length; i++) {
+            indexes[i] = n - ks[i];
         }
-        swap(leftPart, right);
-        return leftPart;
-    }
-
-    private void swap(int leftPart, int rightPart) {
-        int temp = target[leftPart];
-        target[leftPart] = target[rightPart];
-        target[rightPart] = temp;
+        int[] sorted = indexes.clone();
+        SmallSort.sort(sorted, 0, sorted.length - 1);
+        Selection.selectAll(target, 0, n - 1, sorted);
+        int[] result = new int[ks.length];
+        for (int i = 0; i < ks.length; i++) {
+            result[i] = target[indexes[i]];
+        }
+        return result;
     }
 
     public static void main(String[] args) {
@@ -63,6 +58,7 @@ public class FindKthNum {
         findMedian.setK(3);
         int median = findMedian.findMedian();
         System.out.println("k=3时为" + median);
+        System.out.println("k=1,3,9时为" + Arrays.toString(findMedian.findKthNums(1, 3, 9)));
     }
 
 }
@@ -14,40 +14,12 @@ public class FindMedian {
         medianIndex = target.length / 2;
     }
 
+    /**
+     * 原来总是取target[right]做枢纽，已排好序的输入会退化到O(n^2)，现在交给Selection，最坏也是线性
+     */
     public int findMedian() {
-        int left = 0;
-        int right = target.length - 1;
-        int index;
-        while ((index = partitionIt(left, right)) != medianIndex) {
-            if (index > medianIndex) {
-                right = index-1;
-            } else {
-                left = index+1;
-            }
-        }
-        return target[index];
-    }
-
-    private int partitionIt(int left, int right) {
-        int pivot = target[right];
-        int leftPart = left - 1;
-        int rightPart = right;
-        while (true) {
-            while (leftPart < rightPart && target[++leftPart] < pivot) ;
-            while (leftPart < rightPart && target[--rightPart] > pivot) ;
-            if (leftPart >= rightPart) {
-                break;
-            }
-            swap(leftPart, rightPart);
-        }
-        swap(leftPart, right);
-        return leftPart;
-    }
-
-    private void swap(int leftPart, int rightPart) {
-        int temp = target[leftPart];
-        target[leftPart] = target[rightPart];
-        target[rightPart] = temp;
+        Selection.select(target, 0, target.length - 1, medianIndex);
+        return target[medianIndex];
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,126 @@
+package com.bj.zzq.sort;
+
+/**
+ * 堆排序，原地、最坏O(nlogn)。静态方法对数组的[left, right]区间排序，快排递归过深时退化为堆排序(introsort)
+ */
+public class HeapSort extends Sort {
+    private Integer[] target;
+
+    @Override
+    public void setTarget(Integer[] target) {
+        this.target = target;
+    }
+
+    @Override
+    public void sort() {
+        heapSort(target, 0, target.length - 1);
+    }
+
+    /**
+     * introsort允许的递归深度：2*log2(n)
+     */
+    static int depthLimit(int size) {
+        return 2 * (31 - Integer.numberOfLeadingZeros(Math.max(size, 1)));
+    }
+
+    public static void heapSort(Integer[] target, int left, int right) {
+        int n = right - left + 1;
+        if (SortMetrics.ENABLED && n > 1) {
+            SortMetrics.moves(2L * (n - 1));
+            SortMetrics.pass();
+        }
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(target, left, i, n);
+        }
+        for (int last = n - 1; last > 0; last--) {
+            Integer temp = target[left];
+            target[left] = target[left + last];
+            target[left + last] = temp;
+            siftDown(target, left, 0, last);
+        }
+    }
+
+    //大顶堆，下标相对left
+    private static void siftDown(Integer[] target, int left, int i, int n) {
+        Integer temp = target[left + i];
+        int child;
+        int levels = 0;//只在统计时有用
+        long comparisons = 0;
+        while ((child = 2 * i + 1) < n) {
+            comparisons += child + 1 < n ? 2 : 1;
+            if (child + 1 < n && target[left + child + 1] > target[left + child]) {
+                child++;
+            }
+            if (target[left + child] <= temp) {
+                break;
+            }
+            target[left + i] = target[left + child];
+            i = child;
+            levels++;
+        }
+        target[left + i] = temp;
+        if (SortMetrics.ENABLED) {
+            SortMetrics.comparisons(comparisons);
+            SortMetrics.moves(levels + 1);
+        }
+    }
+
+    public static void heapSort(int[] target, int left, int right) {
+        int n = right - left + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(target, left, i, n);
+        }
+        for (int last = n - 1; last > 0; last--) {
+            int temp = target[left];
+            target[left] = target[left + last];
+            target[left + last] = temp;
+            siftDown(target, left, 0, last);
+        }
+    }
+
+    private static void siftDown(int[] target, int left, int i, int n) {
+        int temp = target[left + i];
+        int child;
+        while ((child = 2 * i + 1) < n) {
+            if (child + 1 < n && target[left + child + 1] > target[left + child]) {
+                child++;
+            }
+            if (target[left + child] <= temp) {
+                break;
+            }
+            target[left + i] = target[left + child];
+            i = child;
+        }
+        target[left + i] = temp;
+    }
+
+    public static void heapSort(long[] target, int left, int right) {
+        int n = right - left + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(target, left, i, n);
+        }
+        for (int last = n - 1; last > 0; last--) {
+            long temp = target[left];
+            target[left] = target[left + last];
+            target[left + last] = temp;
+            siftDown(target, left, 0, last);
+        }
+    }
+
+    private static void siftDown(long[] target, int left, int i, int n) {
+        long temp = target[left + i];
+        int child;
+        while ((child = 2 * i + 1) < n) {
+            if (child + 1 < n && target[left + child + 1] > target[left + child]) {
+                child++;
+            }
+            if (target[left + child] <= temp) {
+                break;
+            }
+            target[left + i] = target[left + child];
+            i = child;
+        }
+        target[left + i] = temp;
+    }
+
+}
@@ -18,6 +18,8 @@ public class InsertSort extends Sort {
 
     @Override
     public void sort() {
+        long comparisons = 0;//只在统计时有用，关闭统计时JIT会连同累加一起删掉
+        long moves = 0;
         for (int i = 0; i < target.length; i++) {
             int temp = target[i];
             int j;
@@ -29,6 +31,14 @@ public class InsertSort extends Sort {
                 }
             }
             target[j + 1] = temp;
+            //右移了i-1-j个数，每个数比较一次，停下时(没到头)还有一次
+            comparisons += i - j - (j < 0 ? 1 : 0);
+            moves += i - j;
+        }
+        if (SortMetrics.ENABLED) {
+            SortMetrics.comparisons(comparisons);
+            SortMetrics.moves(moves);
+            SortMetrics.pass();
         }
     }
 
@@ -0,0 +1,408 @@
+/*
+ * Portions of this file are adapted from OpenJDK's java.util.TimSort and
+ * java.util.ComparableTimSort by Josh Bloch, after Tim Peters's listsort.
+ * Copyright (c) 2009, 2013, Oracle and/or its affiliates. All rights reserved.
+ * Copyright 2009 Google Inc.  All Rights Reserved.
+ * Those portions are used under the GNU General Public License version 2 only,
+ * with the "Classpath" exception; see https://openjdk.org/legal/gplv2+ce.html
+ */
+package com.bj.zzq.sort;
+
+/**
+ * 自适应归并排序(Timsort)，AdaptiveMergeSort的原生数组版本。
+ * 找run(countRunAndMakeAscending)、二分插入、galloping(gallopLeft/gallopRight)、mergeLo/mergeHi及其快速路径、minGallop的调整改写自OpenJDK的java.util.TimSort/ComparableTimSort，
+ * 按GPLv2 with Classpath Exception使用，见文件头
+ */
+public class IntAdaptiveMergeSort extends IntSort {
+    private int[] workSpace;//中间数组，合并时只需要放下较短的run，最多length/2
+    //切分run、选择合并哪两个run由RunStack决定，这里只提供int[]上的比较和移动
+    private final RunStack runs = new RunStack() {
+        @Override
+        int countRunAndMakeAscending(int lo, int hi) {
+            return IntAdaptiveMergeSort.this.countRunAndMakeAscending(lo, hi);
+        }
+
+        @Override
+        void binaryInsertSort(int lo, int hi, int start) {
+            IntAdaptiveMergeSort.this.binaryInsertSort(lo, hi, start);
+        }
+
+        @Override
+        void ensureWorkSpace(int size) {
+            IntAdaptiveMergeSort.this.ensureWorkSpace(size);
+        }
+
+        @Override
+        void mergeRuns(int base1, int len1, int base2, int len2) {
+            IntAdaptiveMergeSort.this.mergeRuns(base1, len1, base2, len2);
+        }
+    };
+
+    @Override
+    public void sort() {
+        runs.sort(offset, offset + length);
+    }
+
+    /**
+     * 从lo开始的最长run的长度，严格降序的run原地翻转成升序(严格降序翻转后不会破坏稳定性)
+     */
+    private int countRunAndMakeAscending(int lo, int hi) {
+        int runHi = lo + 1;
+        if (runHi == hi) {
+            return 1;
+        }
+        if (target[runHi++] < target[lo]) {
+            while (runHi < hi && target[runHi] < target[runHi - 1]) {
+                runHi++;
+            }
+            reverseRange(lo, runHi);
+        } else {
+            while (runHi < hi && target[runHi] >= target[runHi - 1]) {
+                runHi++;
+            }
+        }
+        return runHi - lo;
+    }
+
+    private void reverseRange(int lo, int hi) {
+        hi--;
+        while (lo < hi) {
+            int temp = target[lo];
+            target[lo++] = target[hi];
+            target[hi--] = temp;
+        }
+    }
+
+    /**
+     * [lo, start)已经有序，把[start, hi)逐个二分插入。相等的数插在后面，保持稳定
+     */
+    private void binaryInsertSort(int lo, int hi, int start) {
+        if (start == lo) {
+            start++;
+        }
+        for (; start < hi; start++) {
+            int pivot = target[start];
+            int left = lo;
+            int right = start;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (pivot < target[mid]) {
+                    right = mid;
+                } else {
+                    left = mid + 1;
+                }
+            }
+            System.arraycopy(target, left, target, left + 1, start - left);
+            target[left] = pivot;
+        }
+    }
+
+    private void ensureWorkSpace(int size) {
+        if (workSpace == null || workSpace.length < size) {
+            workSpace = new int[size];
+        }
+    }
+
+    /**
+     * 合并相邻的两个run，base2 = base1 + len1
+     */
+    private void mergeRuns(int base1, int len1, int base2, int len2) {
+        //run1中不大于run2第一个数的前缀、run2中不小于run1最后一个数的后缀已经在最终位置，不用参与合并
+        int k = gallopRight(target[base2], target, base1, len1, 0);
+        base1 += k;
+        len1 -= k;
+        if (len1 == 0) {
+            return;
+        }
+        len2 = gallopLeft(target[base1 + len1 - 1], target, base2, len2, len2 - 1);
+        if (len2 == 0) {
+            return;
+        }
+        //较短的run复制到中间数组
+        if (len1 <= len2) {
+            mergeLo(base1, len1, base2, len2);
+        } else {
+            mergeHi(base1, len1, base2, len2);
+        }
+    }
+
+    /**
+     * 在有序的src[base, base+len)中从hint开始指数跳跃再二分，返回k使src[base+k-1] < key <= src[base+k]，
+     * 即key应插入的最左位置
+     */
+    private static int gallopLeft(int key, int[] src, int base, int len, int hint) {
+        int lastOfs = 0;
+        int ofs = 1;
+        if (key > src[base + hint]) {
+            //向右跳，直到src[base+hint+lastOfs] < key <= src[base+hint+ofs]
+            int maxOfs = len - hint;
+            while (ofs < maxOfs && key > src[base + hint + ofs]) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) {
+                    ofs = maxOfs;
+                }
+            }
+            if (ofs > maxOfs) {
+                ofs = maxOfs;
+            }
+            lastOfs += hint;
+            ofs += hint;
+        } else {
+            //向左跳，直到src[base+hint-ofs] < key <= src[base+hint-lastOfs]
+            int maxOfs = hint + 1;
+            while (ofs < maxOfs && key <= src[base + hint - ofs]) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) {
+                    ofs = maxOfs;
+                }
+            }
+            if (ofs > maxOfs) {
+                ofs = maxOfs;
+            }
+            int tmp = lastOfs;
+            lastOfs = hint - ofs;
+            ofs = hint - tmp;
+        }
+        //此时src[base+lastOfs] < key <= src[base+ofs]，在中间二分
+        lastOfs++;
+        while (lastOfs < ofs) {
+            int m = lastOfs + ((ofs - lastOfs) >>> 1);
+            if (key > src[base + m]) {
+                lastOfs = m + 1;
+            } else {
+                ofs = m;
+            }
+        }
+        return ofs;
+    }
+
+    /**
+     * 和gallopLeft一样，但返回key应插入的最右位置：src[base+k-1] <= key < src[base+k]
+     */
+    private static int gallopRight(int key, int[] src, int base, int len, int hint) {
+        int lastOfs = 0;
+        int ofs = 1;
+        if (key < src[base + hint]) {
+            int maxOfs = hint + 1;
+            while (ofs < maxOfs && key < src[base + hint - ofs]) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) {
+                    ofs = maxOfs;
+                }
+            }
+            if (ofs > maxOfs) {
+                ofs = maxOfs;
+            }
+            int tmp = lastOfs;
+            lastOfs = hint - ofs;
+            ofs = hint - tmp;
+        } else {
+            int maxOfs = len - hint;
+            while (ofs < maxOfs && key >= src[base + hint + ofs]) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) {
+                    ofs = maxOfs;
+                }
+            }
+            if (ofs > maxOfs) {
+                ofs = maxOfs;
+            }
+            lastOfs += hint;
+            ofs += hint;
+        }
+        lastOfs++;
+        while (lastOfs < ofs) {
+            int m = lastOfs + ((ofs - lastOfs) >>> 1);
+            if (key < src[base + m]) {
+                ofs = m;
+            } else {
+                lastOfs = m + 1;
+            }
+        }
+        return ofs;
+    }
+
+    /**
+     * len1 <= len2时从左往右合并：run1复制到中间数组，结果从base1开始写回。
+     * 进入条件保证run1第一个数大于run2第一个数、run1最后一个数大于run2最后一个数
+     */
+    private void mergeLo(int base1, int len1, int base2, int len2) {
+        System.arraycopy(target, base1, workSpace, 0, len1);
+        int cursor1 = 0;
+        int cursor2 = base2;
+        int dest = base1;
+        target[dest++] = target[cursor2++];
+        if (--len2 == 0) {
+            System.arraycopy(workSpace, cursor1, target, dest, len1);
+            return;
+        }
+        if (len1 == 1) {
+            System.arraycopy(target, cursor2, target, dest, len2);
+            target[dest + len2] = workSpace[cursor1];
+            return;
+        }
+        int minGallop = runs.minGallop;
+        outer:
+        while (true) {
+            int count1 = 0;//run1连续胜出的次数
+            int count2 = 0;//run2连续胜出的次数
+            //逐个比较，直到某一边连续胜出minGallop次
+            do {
+                if (target[cursor2] < workSpace[cursor1]) {
+                    target[dest++] = target[cursor2++];
+                    count2++;
+                    count1 = 0;
+                    if (--len2 == 0) {
+                        break outer;
+                    }
+                } else {
+                    target[dest++] = workSpace[cursor1++];
+                    count1++;
+                    count2 = 0;
+                    if (--len1 == 1) {
+                        break outer;
+                    }
+                }
+            } while ((count1 | count2) < minGallop);
+
+            //galloping：直接找出一边能连续取多少个，整段复制
+            do {
+                count1 = gallopRight(target[cursor2], workSpace, cursor1, len1, 0);
+                if (count1 != 0) {
+                    System.arraycopy(workSpace, cursor1, target, dest, count1);
+                    dest += count1;
+                    cursor1 += count1;
+                    len1 -= count1;
+                    if (len1 <= 1) {
+                        break outer;
+                    }
+                }
+                target[dest++] = target[cursor2++];
+                if (--len2 == 0) {
+                    break outer;
+                }
+                count2 = gallopLeft(workSpace[cursor1], target, cursor2, len2, 0);
+                if (count2 != 0) {
+                    System.arraycopy(target, cursor2, target, dest, count2);
+                    dest += count2;
+                    cursor2 += count2;
+                    len2 -= count2;
+                    if (len2 == 0) {
+                        break outer;
+                    }
+                }
+                target[dest++] = workSpace[cursor1++];
+                if (--len1 == 1) {
+                    break outer;
+                }
+                minGallop--;
+            } while (count1 >= RunStack.MIN_GALLOP | count2 >= RunStack.MIN_GALLOP);
+            if (minGallop < 0) {
+                minGallop = 0;
+            }
+            minGallop += 2;//离开galloping模式要付出代价，下次更难进入
+        }
+        runs.minGallop = minGallop < 1 ? 1 : minGallop;
+        if (len1 == 1) {
+            System.arraycopy(target, cursor2, target, dest, len2);
+            target[dest + len2] = workSpace[cursor1];
+        } else {
+            System.arraycopy(workSpace, cursor1, target, dest, len1);
+        }
+    }
+
+    /**
+     * len1 > len2时从右往左合并：run2复制到中间数组，结果从base2+len2-1往前写回
+     */
+    private void mergeHi(int base1, int len1, int base2, int len2) {
+        System.arraycopy(target, base2, workSpace, 0, len2);
+        int cursor1 = base1 + len1 - 1;
+        int cursor2 = len2 - 1;
+        int dest = base2 + len2 - 1;
+        target[dest--] = target[cursor1--];
+        if (--len1 == 0) {
+            System.arraycopy(workSpace, 0, target, dest - (len2 - 1), len2);
+            return;
+        }
+        if (len2 == 1) {
+            dest -= len1;
+            cursor1 -= len1;
+            System.arraycopy(target, cursor1 + 1, target, dest + 1, len1);
+            target[dest] = workSpace[cursor2];
+            return;
+        }
+        int minGallop = runs.minGallop;
+        outer:
+        while (true) {
+            int count1 = 0;
+            int count2 = 0;
+            do {
+                if (workSpace[cursor2] < target[cursor1]) {
+                    target[dest--] = target[cursor1--];
+                    count1++;
+                    count2 = 0;
+                    if (--len1 == 0) {
+                        break outer;
+                    }
+                } else {
+                    target[dest--] = workSpace[cursor2--];
+                    count2++;
+                    count1 = 0;
+                    if (--len2 == 1) {
+                        break outer;
+                    }
+                }
+            } while ((count1 | count2) < minGallop);
+
+            do {
+                count1 = len1 - gallopRight(workSpace[cursor2], target, base1, len1, len1 - 1);
+                if (count1 != 0) {
+                    dest -= count1;
+                    cursor1 -= count1;
+                    len1 -= count1;
+                    System.arraycopy(target, cursor1 + 1, target, dest + 1, count1);
+                    if (len1 == 0) {
+                        break outer;
+                    }
+                }
+                target[dest--] = workSpace[cursor2--];
+                if (--len2 == 1) {
+                    break outer;
+                }
+                count2 = len2 - gallopLeft(target[cursor1], workSpace, 0, len2, len2 - 1);
+                if (count2 != 0) {
+                    dest -= count2;
+                    cursor2 -= count2;
+                    len2 -= count2;
+                    System.arraycopy(workSpace, cursor2 + 1, target, dest + 1, count2);
+                    if (len2 <= 1) {
+                        break outer;
+                    }
+                }
+                target[dest--] = target[cursor1--];
+                if (--len1 == 0) {
+                    break outer;
+                }
+                minGallop--;
+            } while (count1 >= RunStack.MIN_GALLOP | count2 >= RunStack.MIN_GALLOP);
+            if (minGallop < 0) {
+                minGallop = 0;
+            }
+            minGallop += 2;
+        }
+        runs.minGallop = minGallop < 1 ? 1 : minGallop;
+        if (len2 == 1) {
+            dest -= len1;
+            cursor1 -= len1;
+            System.arraycopy(target, cursor1 + 1, target, dest + 1, len1);
+            target[dest] = workSpace[cursor2];
+        } else {
+            System.arraycopy(workSpace, 0, target, dest - (len2 - 1), len2);
+        }
+    }
+
+}
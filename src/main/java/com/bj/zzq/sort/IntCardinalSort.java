@@ -0,0 +1,248 @@
+package com.bj.zzq.sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 基数排序，CardinalSort的原生数组版本。按二进制位分组(LSD)，每radixBits位一趟计数分配。
+ * 并行度大于1时，大区间先按最高位做一趟MSD分配：每个线程统计自己那一段的计数，全局做前缀和后各线程分配到互不相交的位置，
+ * 之后每个桶只剩低位没排，作为独立任务继续递归(大桶继续MSD，小桶用LSD)
+ */
+public class IntCardinalSort extends IntSort {
+    private static final int INSERT_SORT_THRESHOLD = 64;//子区间小于等于这个规模时直接交给SmallSort
+    private static final int MIN_LEAF_BITS = 4;//并行模式下小桶做LSD时每趟至少处理的位数
+    private int radixBits = 8;//每一趟处理的二进制位数，常用8/11/16
+    private int granularity = 1 << 16;//并行模式下，小于这个规模的桶直接在当前线程做LSD
+    private int[] workSpace;//分配时的中间数组，和原数组交替使用
+    private int[] count;//单线程时所有趟的计数，第p趟在[p*桶数, (p+1)*桶数)，做完前缀和之后就是每个桶的起始位置
+    //并行模式下每个工作线程一份计数：叶子任务在线程里一口气排完，中间不fork也不join，不会有别的任务插进来用同一份计数
+    private static final ThreadLocal<int[]> LEAF_COUNT = new ThreadLocal<int[]>();
+
+    public void setRadixBits(int radixBits) {
+        if (radixBits < 1 || radixBits > 16) {
+            throw new IllegalArgumentException("radixBits=" + radixBits);
+        }
+        this.radixBits = radixBits;
+    }
+
+    public int getRadixBits() {
+        return radixBits;
+    }
+
+    /**
+     * 基数向上取到2的幂，例如10按16处理，即每趟4位
+     */
+    public void setCardinalNum(int cardinalNum) {
+        setRadixBits(CardinalSort.radixBitsOf(cardinalNum));
+    }
+
+    public void setGranularity(int granularity) {
+        this.granularity = Math.max(granularity, INSERT_SORT_THRESHOLD);
+    }
+
+    @Override
+    public void sort() {
+        if (length < 2) {
+            return;
+        }
+        int buckets = 1 << radixBits;
+        int passes = (32 + radixBits - 1) / radixBits;
+        if (workSpace == null || workSpace.length < length) {
+            workSpace = new int[length];
+        }
+        if (parallelism > 1 && length > granularity) {
+            getPool().invoke(new RadixAction(target, offset, workSpace, 0, length, passes - 1, true));
+            return;
+        }
+        if (count == null || count.length != passes * buckets) {
+            count = new int[passes * buckets];
+        }
+        if (sortDigits(target, offset, workSpace, 0, length, radixBits, passes, count)) {
+            //执行了奇数趟时结果在中间数组里
+            System.arraycopy(workSpace, 0, target, offset, length);
+        }
+    }
+
+    /**
+     * 对src中的n个数做digits趟LSD，每趟bits位，dst是同样大小的中间区间。count至少要有digits*2^bits个
+     *
+     * @return 结果在dst中时返回true
+     */
+    private boolean sortDigits(int[] src, int srcOffset, int[] dst, int dstOffset, int n, int bits, int digits, int[] count) {
+        if (n <= INSERT_SORT_THRESHOLD) {
+            SmallSort.sort(src, srcOffset, srcOffset + n - 1);
+            return false;
+        }
+        int buckets = 1 << bits;
+        int mask = buckets - 1;
+        Arrays.fill(count, 0, digits * buckets, 0);
+        //一次遍历把所有趟的计数都统计出来；符号位取反，负数就排在正数前面
+        for (int i = srcOffset; i < srcOffset + n; i++) {
+            int key = src[i] ^ Integer.MIN_VALUE;
+            for (int p = 0, base = 0; p < digits; p++, base += buckets) {
+                count[base + ((key >>> (p * bits)) & mask)]++;
+            }
+        }
+        int firstKey = src[srcOffset] ^ Integer.MIN_VALUE;
+        boolean inDst = false;
+        for (int p = 0, base = 0; p < digits; p++, base += buckets) {
+            int shift = p * bits;
+            //这一位上所有数都相同，分配之后顺序不变，整趟跳过
+            if (count[base + ((firstKey >>> shift) & mask)] == n) {
+                continue;
+            }
+            int[] from = inDst ? dst : src;
+            int fromOffset = inDst ? dstOffset : srcOffset;
+            int[] to = inDst ? src : dst;
+            int toOffset = inDst ? srcOffset : dstOffset;
+            int sum = toOffset;
+            for (int b = base; b < base + buckets; b++) {
+                int c = count[b];
+                count[b] = sum;
+                sum += c;
+            }
+            for (int i = fromOffset; i < fromOffset + n; i++) {
+                int value = from[i];
+                to[count[base + (((value ^ Integer.MIN_VALUE) >>> shift) & mask)]++] = value;
+            }
+            inDst = !inDst;
+        }
+        return inDst;
+    }
+
+    /**
+     * 对src中的n个数按第0位到第digit位排序，更高的位在这个区间内都相同。resultInSrc表示结果要放回src还是放到dst
+     */
+    @SuppressWarnings("serial")
+    private class RadixAction extends RecursiveAction {
+        private final int[] src;
+        private final int srcOffset;
+        private final int[] dst;
+        private final int dstOffset;
+        private final int n;
+        private final int digit;
+        private final boolean resultInSrc;
+
+        RadixAction(int[] src, int srcOffset, int[] dst, int dstOffset, int n, int digit, boolean resultInSrc) {
+            this.src = src;
+            this.srcOffset = srcOffset;
+            this.dst = dst;
+            this.dstOffset = dstOffset;
+            this.n = n;
+            this.digit = digit;
+            this.resultInSrc = resultInSrc;
+        }
+
+        @Override
+        protected void compute() {
+            //区间比桶数还少时再做MSD，分配和前缀和都是在扫空桶
+            if (n <= granularity || n < 1 << radixBits) {
+                //小桶把每趟的位数缩到和规模相当，避免每趟对2^radixBits个计数做前缀和
+                int bits = Math.min(radixBits, Math.max(MIN_LEAF_BITS, 32 - Integer.numberOfLeadingZeros(n)));
+                int digits = (Math.min((digit + 1) * radixBits, 32) + bits - 1) / bits;
+                int[] localCount = LEAF_COUNT.get();
+                if (localCount == null || localCount.length < digits << bits) {
+                    localCount = new int[digits << bits];
+                    LEAF_COUNT.set(localCount);
+                }
+                boolean inDst = sortDigits(src, srcOffset, dst, dstOffset, n, bits, digits, localCount);
+                if (inDst && resultInSrc) {
+                    System.arraycopy(dst, dstOffset, src, srcOffset, n);
+                } else if (!inDst && !resultInSrc) {
+                    System.arraycopy(src, srcOffset, dst, dstOffset, n);
+                }
+                return;
+            }
+            final int buckets = 1 << radixBits;
+            final int mask = buckets - 1;
+            final int shift = digit * radixBits;
+            int chunks = Math.min(getPool().getParallelism(), n / INSERT_SORT_THRESHOLD);
+            final int chunkSize = (n + chunks - 1) / chunks;
+            //每个线程各自的计数
+            final int[][] histogram = new int[chunks][buckets];
+            List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(chunks);
+            for (int t = 0; t < chunks; t++) {
+                final int[] h = histogram[t];
+                final int from = srcOffset + t * chunkSize;
+                final int to = Math.min(from + chunkSize, srcOffset + n);
+                tasks.add(ForkJoinTask.adapt(new Runnable() {
+                    public void run() {
+                        for (int i = from; i < to; i++) {
+                            h[((src[i] ^ Integer.MIN_VALUE) >>> shift) & mask]++;
+                        }
+                    }
+                }));
+            }
+            invokeAll(tasks);
+            //全局前缀和：桶优先、线程其次，保证每个线程在每个桶里分到一段互不相交且保持原顺序的位置
+            int[] bucketStart = new int[buckets + 1];
+            int sum = 0;
+            for (int b = 0; b < buckets; b++) {
+                bucketStart[b] = sum;
+                for (int t = 0; t < chunks; t++) {
+                    int c = histogram[t][b];
+                    histogram[t][b] = dstOffset + sum;
+                    sum += c;
+                }
+            }
+            bucketStart[buckets] = sum;
+            for (int b = 0; b < buckets; b++) {
+                if (bucketStart[b + 1] - bucketStart[b] == n) {
+                    //这一位上所有数都相同，不用分配，直接处理下一位
+                    if (digit == 0) {
+                        if (!resultInSrc) {
+                            System.arraycopy(src, srcOffset, dst, dstOffset, n);
+                        }
+                    } else {
+                        new RadixAction(src, srcOffset, dst, dstOffset, n, digit - 1, resultInSrc).compute();
+                    }
+                    return;
+                }
+            }
+            tasks.clear();
+            for (int t = 0; t < chunks; t++) {
+                final int[] position = histogram[t];
+                final int from = srcOffset + t * chunkSize;
+                final int to = Math.min(from + chunkSize, srcOffset + n);
+                tasks.add(ForkJoinTask.adapt(new Runnable() {
+                    public void run() {
+                        for (int i = from; i < to; i++) {
+                            int value = src[i];
+                            dst[position[((value ^ Integer.MIN_VALUE) >>> shift) & mask]++] = value;
+                        }
+                    }
+                }));
+            }
+            invokeAll(tasks);
+            //现在数据在dst中，每个桶只剩更低的位没有排
+            tasks.clear();
+            for (int b = 0; b < buckets; b++) {
+                int start = bucketStart[b];
+                int size = bucketStart[b + 1] - start;
+                if (size == 0) {
+                    continue;
+                }
+                if (digit == 0 || size == 1) {
+                    if (resultInSrc) {
+                        System.arraycopy(dst, dstOffset + start, src, srcOffset + start, size);
+                    }
+                    continue;
+                }
+                //很小的桶不值得再起一个任务，直接在dst里排好
+                if (size <= INSERT_SORT_THRESHOLD) {
+                    SmallSort.sort(dst, dstOffset + start, dstOffset + start + size - 1);
+                    if (resultInSrc) {
+                        System.arraycopy(dst, dstOffset + start, src, srcOffset + start, size);
+                    }
+                    continue;
+                }
+                tasks.add(new RadixAction(dst, dstOffset + start, src, srcOffset + start, size, digit - 1, !resultInSrc));
+            }
+            invokeAll(tasks);
+        }
+    }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * Portions of this file are adapted from OpenJDK's java.util.DualPivotQuicksort
+ * by Vladimir Yaroslavskiy, Jon Bentley and Josh Bloch.
+ * Copyright (c) 2009, 2022, Oracle and/or its affiliates. All rights reserved.
+ * Those portions are used under the GNU General Public License version 2 only,
+ * with the "Classpath" exception; see https://openjdk.org/legal/gplv2+ce.html
+ */
+package com.bj.zzq.sort;
+
+/**
+ * 双枢纽快速排序，DualPivotQuickSort的原生数组版本。
+ * 划分部分(seventh取5个样本点、outer循环的less/great/ak划分、中间段过大时再分出等于两个枢纽的数)改写自OpenJDK的java.util.DualPivotQuicksort，
+ * 按GPLv2 with Classpath Exception使用，见文件头
+ */
+public class IntDualPivotQuickSort extends IntSort {
+    private static final int STACK_SIZE = 3 * 64;//栈里每项是(left, right, depth)
+    private boolean introsort = true;//递归深度超过2*log2(n)时改用堆排序，保证最坏O(nlogn)
+    private final int[] stack = new int[STACK_SIZE];
+
+    /**
+     * 关闭后不再有深度保护，精心构造的输入仍可能退化到O(n^2)
+     */
+    public void setIntrosort(boolean introsort) {
+        this.introsort = introsort;
+    }
+
+    @Override
+    public void sort() {
+        quickSort(offset, offset + length - 1, HeapSort.depthLimit(length));
+    }
+
+    /**
+     * 用显式的栈代替递归：每次弹出一个区间做划分，子区间从大到小入栈，最小的在栈顶先处理。
+     * 这样栈里的区间越往下越大，深度是O(log n)，不受线程栈大小的限制
+     */
+    private void quickSort(int left, int right, int depth) {
+        int top = push(0, depth, left, right);
+        while (top > 0) {
+            depth = stack[--top];
+            right = stack[--top];
+            left = stack[--top];
+            top = partition(left, right, depth, top);
+        }
+    }
+
+    /**
+     * 划分[left, right]，子区间压入栈
+     *
+     * @return 新的栈顶
+     */
+    private int partition(int left, int right, int depth, int top) {
+        int size = right - left + 1;
+        //和QuickSortWithSmall9Insert一样，n<=9时交给SmallSort
+        if (size <= 9) {
+            SmallSort.sort(target, left, right);
+            return top;
+        }
+        if (introsort && depth == 0) {
+            HeapSort.heapSort(target, left, right);
+            return top;
+        }
+        //在中间位置和两边各隔约1/7取5个样本并排好序，第2个和第4个作为枢纽，大致把区间分成三等份
+        int seventh = (size >> 3) + (size >> 6) + 1;
+        int e3 = (left + right) >>> 1;
+        int e2 = e3 - seventh;
+        int e1 = e2 - seventh;
+        int e4 = e3 + seventh;
+        int e5 = e4 + seventh;
+        sort5(e1, e2, e3, e4, e5);
+
+        int less = left;
+        int great = right;
+        if (target[e2] != target[e4]) {
+            int pivot1 = target[e2];
+            int pivot2 = target[e4];
+            //两个枢纽先换到两端，最后再放回它们的最终位置
+            target[e2] = target[left];
+            target[e4] = target[right];
+            //e3位置的数在两个枢纽之间，这两个循环不会越界
+            while (target[++less] < pivot1) ;
+            while (target[--great] > pivot2) ;
+            /*
+             * 划分过程中的布局：
+             *   left+1 .. less-1   都小于pivot1
+             *   less .. k-1        在[pivot1, pivot2]之间
+             *   great+1 .. right-1 都大于pivot2
+             */
+            outer:
+            for (int k = less - 1; ++k <= great; ) {
+                int ak = target[k];
+                if (ak < pivot1) {
+                    target[k] = target[less];
+                    target[less] = ak;
+                    ++less;
+                } else if (ak > pivot2) {
+                    while (target[great] > pivot2) {
+                        if (great-- == k) {
+                            break outer;
+                        }
+                    }
+                    if (target[great] < pivot1) {
+                        target[k] = target[less];
+                        target[less] = target[great];
+                        ++less;
+                    } else {
+                        target[k] = target[great];
+                    }
+                    target[great] = ak;
+                    --great;
+                }
+            }
+            target[left] = target[less - 1];
+            target[less - 1] = pivot1;
+            target[right] = target[great + 1];
+            target[great + 1] = pivot2;
+
+            int leftEnd = less - 2;
+            int rightStart = great + 2;
+
+            //中间部分过大时，说明有很多等于枢纽的数，先把它们换到两边，不再参与递归
+            if (less < e1 && e5 < great) {
+                while (target[less] == pivot1) {
+                    ++less;
+                }
+                while (target[great] == pivot2) {
+                    --great;
+                }
+                outer:
+                for (int k = less - 1; ++k <= great; ) {
+                    int ak = target[k];
+                    if (ak == pivot1) {
+                        target[k] = target[less];
+                        target[less] = ak;
+                        ++less;
+                    } else if (ak == pivot2) {
+                        while (target[great] == pivot2) {
+                            if (great-- == k) {
+                                break outer;
+                            }
+                        }
+                        if (target[great] == pivot1) {
+                            target[k] = target[less];
+                            target[less] = target[great];
+                            ++less;
+                        } else {
+                            target[k] = target[great];
+                        }
+                        target[great] = ak;
+                        --great;
+                    }
+                }
+            }
+            return push3(top, depth - 1, left, leftEnd, less, great, rightStart, right);
+        } else {
+            //两个枢纽相等时按单个枢纽做三路划分，等于枢纽的数不再参与递归
+            int pivot = target[e3];
+            for (int k = less; k <= great; ++k) {
+                if (target[k] == pivot) {
+                    continue;
+                }
+                int ak = target[k];
+                if (ak < pivot) {
+                    target[k] = target[less];
+                    target[less] = ak;
+                    ++less;
+                } else {
+                    while (target[great] > pivot) {
+                        --great;
+                    }
+                    if (target[great] < pivot) {
+                        target[k] = target[less];
+                        target[less] = target[great];
+                        ++less;
+                    } else {
+                        target[k] = target[great];
+                    }
+                    target[great] = ak;
+                    --great;
+                }
+            }
+            return push2(top, depth - 1, left, less - 1, great + 1, right);
+        }
+    }
+
+    private int push(int top, int depth, int left, int right) {
+        if (right > left) {
+            stack[top++] = left;
+            stack[top++] = right;
+            stack[top++] = depth;
+        }
+        return top;
+    }
+
+    //较大的先入栈，较小的在上面先处理
+    private int push2(int top, int depth, int left1, int right1, int left2, int right2) {
+        if (right1 - left1 >= right2 - left2) {
+            top = push(top, depth, left1, right1);
+            return push(top, depth, left2, right2);
+        }
+        top = push(top, depth, left2, right2);
+        return push(top, depth, left1, right1);
+    }
+
+    private int push3(int top, int depth, int left1, int right1, int left2, int right2, int left3, int right3) {
+        int size1 = right1 - left1;
+        int size2 = right2 - left2;
+        int size3 = right3 - left3;
+        if (size1 <= size2 && size1 <= size3) {
+            top = push2(top, depth, left2, right2, left3, right3);
+            return push(top, depth, left1, right1);
+        } else if (size2 <= size3) {
+            top = push2(top, depth, left1, right1, left3, right3);
+            return push(top, depth, left2, right2);
+        }
+        top = push2(top, depth, left1, right1, left2, right2);
+        return push(top, depth, left3, right3);
+    }
+
+    //5个样本用插入的方式排好序
+    private void sort5(int e1, int e2, int e3, int e4, int e5) {
+        if (target[e2] < target[e1]) {
+            swap(e1, e2);
+        }
+        if (target[e3] < target[e2]) {
+            swap(e2, e3);
+            if (target[e2] < target[e1]) {
+                swap(e1, e2);
+            }
+        }
+        if (target[e4] < target[e3]) {
+            swap(e3, e4);
+            if (target[e3] < target[e2]) {
+                swap(e2, e3);
+                if (target[e2] < target[e1]) {
+                    swap(e1, e2);
+                }
+            }
+        }
+        if (target[e5] < target[e4]) {
+            swap(e4, e5);
+            if (target[e4] < target[e3]) {
+                swap(e3, e4);
+                if (target[e3] < target[e2]) {
+                    swap(e2, e3);
+                    if (target[e2] < target[e1]) {
+                        swap(e1, e2);
+                    }
+                }
+            }
+        }
+    }
+
+    private void swap(int left, int right) {
+        int temp = target[left];
+        target[left] = target[right];
+        target[right] = temp;
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.bj.zzq.sort;
+
+/**
+ * 插入排序，InsertSort的原生数组版本
+ */
+public class IntInsertSort extends IntSort {
+
+    @Override
+    public void sort() {
+        int right = offset + length - 1;
+        for (int i = offset + 1; i <= right; i++) {
+            int temp = target[i];
+            int j;
+            for (j = i - 1; j >= offset; j--) {
+                if (temp < target[j]) {
+                    target[j + 1] = target[j];
+                } else {
+                    break;
+                }
+            }
+            target[j + 1] = temp;
+        }
+    }
+
+}
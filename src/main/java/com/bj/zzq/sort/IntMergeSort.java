@@ -0,0 +1,54 @@
+package com.bj.zzq.sort;
+
+/**
+ * 归并排序，MergeSort的原生数组版本。中间数组够用时复用，不在每次sort时重新分配
+ */
+public class IntMergeSort extends IntSort {
+    private static final int INSERT_SORT_THRESHOLD = 16;//小于等于这个规模直接插入排序
+    private int[] workSpace;//中间数组
+
+    @Override
+    public void sort() {
+        if (workSpace == null || workSpace.length < target.length) {
+            workSpace = new int[target.length];
+        }
+        merge(offset, offset + length - 1);
+    }
+
+    private void merge(int start, int end) {
+        //最底层的小区间不再切到单个元素，直接插入排序
+        if (end - start < INSERT_SORT_THRESHOLD) {
+            SmallSort.insertSort(target, start, end);
+            return;
+        }
+        int mid = (start + end) >>> 1;
+        merge(start, mid);
+        merge(mid + 1, end);
+        recMerge(start, mid, end);
+    }
+
+    //合并两个有序数组
+    private void recMerge(int start, int mid, int end) {
+        // start - mid
+        //mid+1 - end
+        int j = 0;
+        int beforeIndex = start;
+        int afterIndex = mid + 1;
+        while (beforeIndex <= mid && afterIndex <= end) {
+            if (target[beforeIndex] <= target[afterIndex]) {
+                workSpace[start + j++] = target[beforeIndex++];
+            } else {
+                workSpace[start + j++] = target[afterIndex++];
+            }
+        }
+        while (beforeIndex <= mid) {
+            workSpace[start + j++] = target[beforeIndex++];
+        }
+
+        while (afterIndex <= end) {
+            workSpace[start + j++] = target[afterIndex++];
+        }
+
+        System.arraycopy(workSpace, start, target, start, j);
+    }
+}
@@ -0,0 +1,72 @@
+package com.bj.zzq.sort;
+
+/**
+ * 快速排序-简版，QuickSortSimple的原生数组版本，枢纽为最右边的数
+ */
+public class IntQuickSortSimple extends IntSort {
+    private static final int STACK_SIZE = 2 * 32;//栈里每项是(left, right)
+    private final int[] stack = new int[STACK_SIZE];
+
+    @Override
+    public void sort() {
+        recQuickSort(offset, offset + length - 1);
+    }
+
+    /**
+     * 较大的一边入栈，较小的一边接着循环，栈深不超过log2(n)。两边都递归的话，已排好序的输入每次只切掉一个数，递归深度就是n
+     */
+    public void recQuickSort(int left, int right) {
+        int top = 0;
+        while (true) {
+            if (left < right) {
+                int pivot = target[right];
+                int middle = partitionIt(left, right, pivot);
+                if (middle - left < right - middle) {
+                    stack[top++] = middle + 1;
+                    stack[top++] = right;
+                    right = middle - 1;
+                } else {
+                    stack[top++] = left;
+                    stack[top++] = middle - 1;
+                    left = middle + 1;
+                }
+                continue;
+            }
+            if (top == 0) {
+                return;
+            }
+            right = stack[--top];
+            left = stack[--top];
+        }
+    }
+
+    /**
+     * return 右子数组的最左边界
+     *
+     * @param left  左边界
+     * @param right 有边界
+     */
+    private int partitionIt(int left, int right, int pivot) {
+        int leftPart = left - 1;
+        int rightPart = right;
+        while (true) {
+            while (target[++leftPart] < pivot) ;
+            //两边排序的指针要么同时到中间，要么有一方先到达
+            while (rightPart > left && target[--rightPart] > pivot) ;
+            if (leftPart >= rightPart) {
+                break;
+            }
+            swap(leftPart, rightPart);
+        }
+        //pivot在right位置
+        swap(leftPart, right);
+        return leftPart;
+    }
+
+    private void swap(int left, int right) {
+        int temp = target[left];
+        target[left] = target[right];
+        target[right] = temp;
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.bj.zzq.sort;
+
+/**
+ * 快速排序，QuickSortWithNoSmall3的原生数组版本，n<=3时小划分不处理，最后统一使用插入排序
+ */
+public class IntQuickSortWithNoSmall3 extends IntSort {
+    private static final int STACK_SIZE = 3 * 64;//栈里每项是(left, right, depth)，先处理较小的一边时int范围内不超过31项
+    private boolean introsort = true;//递归深度超过2*log2(n)时改用堆排序，保证最坏O(nlogn)
+    private final int[] stack = new int[STACK_SIZE];
+
+    /**
+     * 关闭后就是原来的快排，已排好序或者精心构造的输入可能退化到O(n^2)
+     */
+    public void setIntrosort(boolean introsort) {
+        this.introsort = introsort;
+    }
+
+    @Override
+    public void sort() {
+        recQuickSort(offset, offset + length - 1);
+        SmallSort.insertSort(target, offset, offset + length - 1);
+    }
+
+    public void recQuickSort(int left, int right) {
+        quickSort(left, right, HeapSort.depthLimit(right - left + 1));
+    }
+
+    private void quickSort(int left, int right, int depth) {
+        int top = 0;
+        while (true) {
+            int size = right - left + 1;
+            if (size > 3) {
+                //递归太深说明枢纽一直选得不好，剩下的部分用堆排序
+                if (introsort && depth == 0) {
+                    HeapSort.heapSort(target, left, right);
+                } else {
+                    int pivot = middle3(left, right);
+                    int middle = partitionIt(left, right, pivot);
+                    depth--;
+                    //较大的一边入栈，较小的一边接着循环
+                    if (middle - left < right - middle) {
+                        stack[top++] = middle + 1;
+                        stack[top++] = right;
+                        stack[top++] = depth;
+                        right = middle - 1;
+                    } else {
+                        stack[top++] = left;
+                        stack[top++] = middle - 1;
+                        stack[top++] = depth;
+                        left = middle + 1;
+                    }
+                    continue;
+                }
+            }
+            if (top == 0) {
+                return;
+            }
+            depth = stack[--top];
+            right = stack[--top];
+            left = stack[--top];
+        }
+    }
+
+    /**
+     * return 右子数组的最左边界
+     *
+     * @param left  左边界
+     * @param right 有边界
+     */
+    private int partitionIt(int left, int right, int pivot) {
+        int leftPart = left;
+        int rightPart = right - 1;
+        while (true) {
+            while (target[++leftPart] < pivot) ;
+            //两边排序的指针要么同时到中间，要么有一方先到达
+            while (target[--rightPart] > pivot) ;
+            if (leftPart >= rightPart) {
+                break;
+            }
+            swap(leftPart, rightPart);
+        }
+        //注意这个需要和right-1交换，因为pivot在right-1位置
+        swap(leftPart, right - 1);
+        return leftPart;
+    }
+
+    /**
+     * 找出左、中间、右中的中位数，并把这个三个数排序
+     *
+     * @return 中位数
+     */
+    private int middle3(int left, int right) {
+        int middle = (left + right) >>> 1;
+        if (target[left] > target[middle]) {
+            swap(left, middle);
+        }
+        if (target[left] > target[right]) {
+            swap(left, right);
+        }
+        if (target[middle] > target[right]) {
+            swap(middle, right);
+        }
+        //最左边的和最右的不用参加排序，所以把基值换到right-1位置
+        swap(middle, right - 1);
+        return target[right - 1];
+    }
+
+    private void swap(int left, int right) {
+        int temp = target[left];
+        target[left] = target[right];
+        target[right] = temp;
+    }
+
+}
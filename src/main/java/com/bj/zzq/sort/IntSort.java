@@ -0,0 +1,35 @@
+package com.bj.zzq.sort;
+
+/**
+ * int[]原生数组排序，和Sort对应。直接操作基本类型，不产生Integer装箱对象，也没有拆箱和指针跳转的开销
+ */
+public abstract class IntSort extends AbstractParallelSort {
+    protected int[] target;
+    protected int offset;//排序起始下标
+    protected int length;//排序元素个数
+
+    public void setTarget(int[] target) {
+        setTarget(target, 0, target.length);
+    }
+
+    /**
+     * 只对target[offset, offset + length)这一段排序
+     */
+    public void setTarget(int[] target, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > target.length - length) {
+            throw new ArrayIndexOutOfBoundsException("offset=" + offset + ",length=" + length + ",array.length=" + target.length);
+        }
+        this.target = target;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public abstract void sort();
+
+    public void display() {
+        System.out.println();
+        for (int i = offset; i < offset + length; i++) {
+            System.out.print(target[i] + " ");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.bj.zzq.sort;
+
+import java.util.function.Supplier;
+
+/**
+ * 所有IntSort实现的登记表，和SortAlgorithm对应
+ */
+public enum IntSortAlgorithm {
+    MERGE_SORT(Integer.MAX_VALUE, IntMergeSort::new),
+    INSERT_SORT(100000, IntInsertSort::new),
+    SHELL_SORT(Integer.MAX_VALUE, IntShellSort::new),
+    QUICK_SORT_SMALL3_HAND(Integer.MAX_VALUE, IntQuickSortWithSmall3Hand::new),
+    QUICK_SORT_SMALL9_INSERT(Integer.MAX_VALUE, true, IntQuickSortWithSmall9Insert::new),
+    QUICK_SORT_NO_SMALL3(Integer.MAX_VALUE, IntQuickSortWithNoSmall3::new),
+    QUICK_SORT(Integer.MAX_VALUE, IntQuickSort::new),
+    QUICK_SORT_SIMPLE(100000, IntQuickSortSimple::new),//有序、逆序、山形数据上是O(n^2)
+    CARDINAL_SORT(Integer.MAX_VALUE, true, IntCardinalSort::new),
+    PARALLEL_MERGE_SORT(Integer.MAX_VALUE, true, IntParallelMergeSort::new),
+    DUAL_PIVOT_QUICK_SORT(Integer.MAX_VALUE, IntDualPivotQuickSort::new),
+    THREE_WAY_QUICK_SORT(Integer.MAX_VALUE, IntThreeWayQuickSort::new),
+    ADAPTIVE_MERGE_SORT(Integer.MAX_VALUE, IntAdaptiveMergeSort::new),
+    SHELL_SORT_AUTO_GAP(Integer.MAX_VALUE, () -> new IntShellSort(GapSequence.AUTO));
+
+    private final int maxSize;//超过这个规模耗时不可接受(平方级算法)，压测时不跑
+    private final boolean parallel;//setParallelism是否生效，压测时只有这些算法按多个并行度跑
+    private final Supplier<IntSort> factory;
+
+    IntSortAlgorithm(int maxSize, Supplier<IntSort> factory) {
+        this(maxSize, false, factory);
+    }
+
+    IntSortAlgorithm(int maxSize, boolean parallel, Supplier<IntSort> factory) {
+        this.maxSize = maxSize;
+        this.parallel = parallel;
+        this.factory = factory;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public IntSort create() {
+        return factory.get();
+    }
+}
@@ -0,0 +1,199 @@
+package com.bj.zzq.sort;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * 按基本类型键排序对象(argsort)，例如按iData或dData排序com.bj.zzq.tree.Node、com.bj.zzq.chaintable.Link。
+ * 每个对象只调用一次取键函数，排序时只比较基本类型，不再有getter调用和指针跳转：
+ * int键和原下标打包成一个long(高32位键，低32位下标)，交给LongCardinalSort只按高32位排序(8位一趟只要4趟)，基数排序每趟稳定，相同键保持下标顺序；
+ * double键转成可按long比较的位模式，和下标数组一起做LSD基数排序。排好后得到下标的排列，可以直接返回，也可以应用到原数组
+ */
+public class KeySort<T> {
+    private static final int RADIX_BITS = 8;
+    private static final int BUCKETS = 1 << RADIX_BITS;
+    private static final int PASSES = 64 / RADIX_BITS;
+
+    private T[] target;
+    private ToIntFunction<? super T> intKey;
+    private ToDoubleFunction<? super T> doubleKey;
+    private final LongCardinalSort engine = new LongCardinalSort();
+    private long[] packed;//int键：键<<32|下标；double键：可比较的位模式
+    private long[] keyWorkSpace;
+    private int[] index;//double键排序时跟着键移动的下标
+    private int[] indexWorkSpace;
+    private int[] count;
+    private Object[] records;//应用排列时的中间数组
+
+    public KeySort() {
+        //低32位是下标，不参与排序
+        engine.setKeyShift(32);
+    }
+
+    public void setTarget(T[] target) {
+        this.target = target;
+    }
+
+    public void setIntKey(ToIntFunction<? super T> intKey) {
+        this.intKey = intKey;
+        this.doubleKey = null;
+    }
+
+    public void setDoubleKey(ToDoubleFunction<? super T> doubleKey) {
+        this.doubleKey = doubleKey;
+        this.intKey = null;
+    }
+
+    /**
+     * int键排序引擎的并行度，见LongCardinalSort
+     */
+    public void setParallelism(int parallelism) {
+        engine.setParallelism(parallelism);
+    }
+
+    /**
+     * 使用调用方提供的ForkJoinPool，不会被这里关闭
+     */
+    public void setPool(ForkJoinPool pool) {
+        engine.setPool(pool);
+    }
+
+    /**
+     * 关闭setParallelism时排序引擎自己创建的pool，不再并行排序时调用；之后再排序会重新创建
+     */
+    public void shutdown() {
+        engine.shutdown();
+    }
+
+    /**
+     * @return 排列perm，perm[i]是排序后第i个对象在原数组中的下标；原数组不变
+     */
+    public int[] argsort() {
+        int[] perm = new int[target.length];
+        if (doubleKey != null) {
+            System.arraycopy(sortByDoubleKey(), 0, perm, 0, target.length);
+        } else {
+            sortByIntKey();
+            for (int i = 0; i < target.length; i++) {
+                perm[i] = (int) packed[i];
+            }
+        }
+        return perm;
+    }
+
+    /**
+     * 按键排序原数组，相同键保持原来的相对顺序
+     */
+    @SuppressWarnings("unchecked")
+    public void sort() {
+        int n = target.length;
+        if (records == null || records.length < n) {
+            records = new Object[n];
+        }
+        System.arraycopy(target, 0, records, 0, n);
+        if (doubleKey != null) {
+            int[] perm = sortByDoubleKey();
+            for (int i = 0; i < n; i++) {
+                target[i] = (T) records[perm[i]];
+            }
+        } else {
+            sortByIntKey();
+            for (int i = 0; i < n; i++) {
+                target[i] = (T) records[(int) packed[i]];
+            }
+        }
+        //不持有对象引用，避免排序器比数据活得久时内存泄漏
+        Arrays.fill(records, 0, n, null);
+    }
+
+    private void sortByIntKey() {
+        if (intKey == null) {
+            throw new IllegalStateException("key function not set");
+        }
+        int n = target.length;
+        ensurePacked(n);
+        for (int i = 0; i < n; i++) {
+            packed[i] = (long) intKey.applyAsInt(target[i]) << 32 | i;
+        }
+        engine.setTarget(packed, 0, n);
+        engine.sort();
+    }
+
+    /**
+     * @return 排好序的下标，前target.length个有效
+     */
+    private int[] sortByDoubleKey() {
+        int n = target.length;
+        ensurePacked(n);
+        if (index == null || index.length < n) {
+            index = new int[n];
+            indexWorkSpace = new int[n];
+            keyWorkSpace = new long[n];
+        }
+        for (int i = 0; i < n; i++) {
+            //doubleToLongBits把NaN统一成一个值；负数翻转除符号位外的所有位后，有符号long的大小和Double.compare一致，
+            //再把符号位取反就能按无符号的位来分配
+            long bits = Double.doubleToLongBits(doubleKey.applyAsDouble(target[i]));
+            packed[i] = (bits ^ (bits >> 63) & Long.MAX_VALUE) ^ Long.MIN_VALUE;
+            index[i] = i;
+        }
+        return n < 2 ? index : radixSort(n);
+    }
+
+    /**
+     * packed和index一起按8位一趟做LSD，跳过所有键都相同的位。LSD每趟都是稳定的，相同键保持下标顺序
+     *
+     * @return 结果所在的下标数组
+     */
+    private int[] radixSort(int n) {
+        if (count == null) {
+            count = new int[PASSES * BUCKETS];
+        }
+        Arrays.fill(count, 0);
+        for (int i = 0; i < n; i++) {
+            long key = packed[i];
+            for (int p = 0, base = 0; p < PASSES; p++, base += BUCKETS) {
+                count[base + (int) ((key >>> (p * RADIX_BITS)) & (BUCKETS - 1))]++;
+            }
+        }
+        long[] fromKey = packed;
+        int[] fromIndex = index;
+        long[] toKey = keyWorkSpace;
+        int[] toIndex = indexWorkSpace;
+        long firstKey = packed[0];
+        for (int p = 0, base = 0; p < PASSES; p++, base += BUCKETS) {
+            int shift = p * RADIX_BITS;
+            if (count[base + (int) ((firstKey >>> shift) & (BUCKETS - 1))] == n) {
+                continue;
+            }
+            int sum = 0;
+            for (int b = base; b < base + BUCKETS; b++) {
+                int c = count[b];
+                count[b] = sum;
+                sum += c;
+            }
+            for (int i = 0; i < n; i++) {
+                long key = fromKey[i];
+                int pos = count[base + (int) ((key >>> shift) & (BUCKETS - 1))]++;
+                toKey[pos] = key;
+                toIndex[pos] = fromIndex[i];
+            }
+            long[] tempKey = fromKey;
+            fromKey = toKey;
+            toKey = tempKey;
+            int[] tempIndex = fromIndex;
+            fromIndex = toIndex;
+            toIndex = tempIndex;
+        }
+        return fromIndex;
+    }
+
+    private void ensurePacked(int n) {
+        if (packed == null || packed.length < n) {
+            packed = new long[n];
+        }
+    }
+
+}
@@ -0,0 +1,291 @@
+package com.bj.zzq.sort;
+
+import java.util.SplittableRandom;
+
+/**
+ * 流式近似分位数(KLL sketch)，和FindMedian/FindKthNum相对：那两个要把所有数据放在数组里，结果精确；
+ * 这里只保留O(k)个样本，数据逐个流过，适合没有尽头的监控数据(如延迟的p50/p99)。
+ * 样本按层存放，第h层每个样本代表2^h个原始数据；某层装满时把它排序，随机取奇数位或偶数位的一半升到上一层(压缩)，
+ * 上层容量是k，越往下按2/3递减。update只往第0层追加，压缩的代价摊到每个数上是常数级的。
+ * k越大越准，rank误差大约在1.7/k左右(k=200时约1%)。
+ * 不是线程安全的：多线程时每个线程用自己的sketch，最后merge到一起，合并后的误差和单个sketch处理全部数据时同一量级
+ */
+public class KllSketch {
+    public static final int DEFAULT_K = 200;
+    private static final int MIN_K = 8;
+    //每层至少保留的样本数，太小时低层压缩过于频繁
+    private static final int MIN_LEVEL_CAPACITY = 8;
+
+    private final int k;
+    private final SplittableRandom random;
+    private int[][] levels = new int[1][];
+    private int[] sizes = new int[1];
+    private int numLevels = 1;
+    private int retained;
+    private int totalCapacity;
+    private long n;
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+    //查询用的有序视图：值<<32|层号，update或merge后失效
+    private long[] sortedView;
+    private long[] cumulative;
+    private final IntDualPivotQuickSort levelSort = new IntDualPivotQuickSort();
+    private final LongDualPivotQuickSort viewSort = new LongDualPivotQuickSort();
+
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    public KllSketch(int k) {
+        this(k, System.nanoTime());
+    }
+
+    /**
+     * @param seed 压缩时选奇偶位的随机数种子，固定种子时结果可以复现
+     */
+    public KllSketch(int k, long seed) {
+        if (k < MIN_K) {
+            throw new IllegalArgumentException("k=" + k);
+        }
+        this.k = k;
+        this.random = new SplittableRandom(seed);
+        levels[0] = new int[k];
+        totalCapacity = capacity(0);
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * @return 处理过的数据个数
+     */
+    public long getN() {
+        return n;
+    }
+
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    public int getMin() {
+        checkNotEmpty();
+        return min;
+    }
+
+    public int getMax() {
+        checkNotEmpty();
+        return max;
+    }
+
+    /**
+     * @return 当前保留的样本数
+     */
+    public int getRetained() {
+        return retained;
+    }
+
+    public void update(int value) {
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+        n++;
+        sortedView = null;
+        append(0, value);
+        if (retained >= totalCapacity) {
+            compress();
+        }
+    }
+
+    /**
+     * 把other的样本逐层并入自己，other不变。合并后按总容量重新压缩
+     */
+    public void merge(KllSketch other) {
+        if (other == this) {
+            throw new IllegalArgumentException("merge with itself");
+        }
+        if (other.isEmpty()) {
+            return;
+        }
+        while (numLevels < other.numLevels) {
+            addLevel();
+        }
+        for (int h = 0; h < other.numLevels; h++) {
+            int[] from = other.levels[h];
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, from[i]);
+            }
+        }
+        n += other.n;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sortedView = null;
+        compress();
+    }
+
+    /**
+     * @param fraction 0~1，0是最小值，1是最大值，0.5是中位数
+     * @return 近似分位数：累计权重第一次达到fraction*n的样本
+     */
+    public int quantile(double fraction) {
+        checkNotEmpty();
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("fraction=" + fraction);
+        }
+        if (fraction == 0) {
+            return min;
+        }
+        if (fraction == 1) {
+            return max;
+        }
+        buildSortedView();
+        double target = fraction * n;
+        //第一个累计权重>=target的位置
+        int low = 0;
+        int high = sortedView.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] < target) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return (int) (sortedView[low] >> 32);
+    }
+
+    public int[] quantiles(double... fractions) {
+        int[] result = new int[fractions.length];
+        for (int i = 0; i < fractions.length; i++) {
+            result[i] = quantile(fractions[i]);
+        }
+        return result;
+    }
+
+    /**
+     * @return 近似的归一化rank：<=value的数据所占的比例
+     */
+    public double rank(int value) {
+        checkNotEmpty();
+        buildSortedView();
+        //最后一个值<=value的位置
+        int low = 0;
+        int high = sortedView.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if ((int) (sortedView[middle] >> 32) <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low == 0 ? 0 : (double) cumulative[low - 1] / n;
+    }
+
+    /**
+     * 第h层的容量，最上层是k，往下每层乘2/3
+     */
+    private int capacity(int h) {
+        int depth = numLevels - 1 - h;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(2.0 / 3, depth)));
+    }
+
+    private void append(int h, int value) {
+        int[] level = levels[h];
+        if (sizes[h] == level.length) {
+            int[] grown = new int[Math.max(MIN_LEVEL_CAPACITY, level.length * 2)];
+            System.arraycopy(level, 0, grown, 0, sizes[h]);
+            levels[h] = grown;
+            level = grown;
+        }
+        level[sizes[h]++] = value;
+        retained++;
+    }
+
+    private void addLevel() {
+        if (numLevels == levels.length) {
+            int[][] grownLevels = new int[numLevels * 2][];
+            System.arraycopy(levels, 0, grownLevels, 0, numLevels);
+            levels = grownLevels;
+            int[] grownSizes = new int[numLevels * 2];
+            System.arraycopy(sizes, 0, grownSizes, 0, numLevels);
+            sizes = grownSizes;
+        }
+        levels[numLevels] = new int[MIN_LEVEL_CAPACITY];
+        sizes[numLevels] = 0;
+        numLevels++;
+        totalCapacity = 0;
+        for (int h = 0; h < numLevels; h++) {
+            totalCapacity += capacity(h);
+        }
+    }
+
+    /**
+     * 样本总数达到总容量时，从低到高压缩第一个装满的层，直到总数回到总容量以内。
+     * 单个层可以暂时超过自己的容量(惰性压缩)，这样大部分update只是一次追加。
+     * 加层后下面各层的容量会变小，所以每次都重新从第0层找
+     */
+    private void compress() {
+        while (retained >= totalCapacity) {
+            int full = 0;
+            while (full < numLevels - 1 && sizes[full] < capacity(full)) {
+                full++;
+            }
+            if (full == numLevels - 1) {
+                addLevel();
+            }
+            compact(full);
+        }
+    }
+
+    /**
+     * 排序第h层，个数为奇数时留下最小的一个，其余的两两一组随机取一个升到h+1层，权重翻倍，rank的期望不变
+     */
+    private void compact(int h) {
+        int[] level = levels[h];
+        int size = sizes[h];
+        levelSort.setTarget(level, 0, size);
+        levelSort.sort();
+        int start = size & 1;
+        int offset = random.nextBoolean() ? 1 : 0;
+        for (int i = start + offset; i < size; i += 2) {
+            append(h + 1, level[i]);
+        }
+        retained -= size - start;
+        sizes[h] = start;
+    }
+
+    private void buildSortedView() {
+        if (sortedView != null) {
+            return;
+        }
+        long[] view = new long[retained];
+        int size = 0;
+        for (int h = 0; h < numLevels; h++) {
+            int[] level = levels[h];
+            for (int i = 0; i < sizes[h]; i++) {
+                view[size++] = (long) level[i] << 32 | h;
+            }
+        }
+        viewSort.setTarget(view, 0, size);
+        viewSort.sort();
+        long[] sums = new long[size];
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1L << (int) view[i];
+            sums[i] = sum;
+        }
+        sortedView = view;
+        cumulative = sums;
+    }
+
+    private void checkNotEmpty() {
+        if (n == 0) {
+            throw new IllegalStateException("sketch is empty");
+        }
+    }
+
+}
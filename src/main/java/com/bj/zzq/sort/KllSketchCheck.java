@@ -0,0 +1,130 @@
+package com.bj.zzq.sort;
+
+import com.bj.zzq.sort.data.DatasetGenerator;
+import com.bj.zzq.sort.data.Distribution;
+
+/**
+ * KllSketch的校验程序：同一份数据一边喂给sketch(单线程一个，多线程各一个再merge)，一边用FindMedian/FindKthNum求精确值，
+ * 打印各分位数的近似值、精确值和rank误差。rank误差=近似值在全部数据中的rank与目标分位的差，比值本身的差更能说明精度
+ */
+public class KllSketchCheck {
+    private static final double[] FRACTIONS = {0.5, 0.9, 0.95, 0.99, 0.999};
+
+    public static void main(String[] args) throws InterruptedException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int k = args.length > 1 ? Integer.parseInt(args[1]) : KllSketch.DEFAULT_K;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        DatasetGenerator generator = new DatasetGenerator(20261016L);
+        double worst = 0;
+        for (Distribution distribution : Distribution.values()) {
+            int[] data = generator.generate(distribution, size);
+            KllSketch single = new KllSketch(k, 1L);
+            for (int value : data) {
+                single.update(value);
+            }
+            KllSketch merged = mergedSketch(data, k, threads);
+            int[] sorted = data.clone();
+            IntDualPivotQuickSort sort = new IntDualPivotQuickSort();
+            sort.setTarget(sorted);
+            sort.sort();
+            System.out.println(distribution + " n=" + size + " k=" + k + " 保留样本=" + single.getRetained()
+                    + " 合并后保留样本=" + merged.getRetained());
+            for (double fraction : FRACTIONS) {
+                int exact = exact(data, fraction);
+                int approx = single.quantile(fraction);
+                int approxMerged = merged.quantile(fraction);
+                double error = rankError(sorted, approx, fraction);
+                double errorMerged = rankError(sorted, approxMerged, fraction);
+                worst = Math.max(worst, Math.max(error, errorMerged));
+                System.out.printf("  p%-5s 精确=%-11d 近似=%-11d rank误差=%.5f  合并=%-11d rank误差=%.5f%n",
+                        fraction * 100, exact, approx, error, approxMerged, errorMerged);
+            }
+        }
+        System.out.printf("最大rank误差%.5f%n", worst);
+    }
+
+    /**
+     * 数据切成threads段，每个线程一个sketch，最后依次merge
+     */
+    private static KllSketch mergedSketch(final int[] data, int k, int threads) throws InterruptedException {
+        final KllSketch[] sketches = new KllSketch[threads];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int from = (int) ((long) data.length * t / threads);
+            final int to = (int) ((long) data.length * (t + 1) / threads);
+            final KllSketch sketch = new KllSketch(k, t + 2L);
+            sketches[t] = sketch;
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = from; i < to; i++) {
+                        sketch.update(data[i]);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        for (int t = 1; t < threads; t++) {
+            sketches[0].merge(sketches[t]);
+        }
+        return sketches[0];
+    }
+
+    /**
+     * 和KllSketch.quantile的定义一致：第ceil(fraction*n)小的数。中位数交给FindMedian，其余交给FindKthNum(第k大)
+     */
+    private static int exact(int[] data, double fraction) {
+        int n = data.length;
+        int index = Math.max(0, (int) Math.ceil(fraction * n) - 1);
+        Integer[] boxed = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            boxed[i] = data[i];
+        }
+        if (index == n / 2) {
+            FindMedian findMedian = new FindMedian();
+            findMedian.setTarget(boxed);
+            return findMedian.findMedian();
+        }
+        FindKthNum findKthNum = new FindKthNum();
+        findKthNum.setTarget(boxed);
+        findKthNum.setK(n - index);
+        return findKthNum.findMedian();
+    }
+
+    /**
+     * 值相同的数rank是一个区间，目标分位落在区间内时误差为0
+     */
+    private static double rankError(int[] sorted, int value, double fraction) {
+        int n = sorted.length;
+        double lowRank = (double) lowerBound(sorted, value) / n;
+        double highRank = (double) lowerBound(sorted, value + 1L) / n;
+        if (fraction < lowRank) {
+            return lowRank - fraction;
+        }
+        if (fraction > highRank) {
+            return fraction - highRank;
+        }
+        return 0;
+    }
+
+    /**
+     * @return 第一个>=value的位置
+     */
+    private static int lowerBound(int[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+}
@@ -0,0 +1,163 @@
+package com.bj.zzq.sort;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 快速排序，QuickSortWithSmall9Insert的long[]原生数组版本，n<=9时对小划分使用排序网络(SmallSort)
+ */
+public class LongQuickSortWithSmall9Insert extends LongSort {
+    private static final int STACK_SIZE = 3 * 64;//栈里每项是(left, right, depth)，先处理较小的一边时int范围内不超过31项
+    private boolean introsort = true;//递归深度超过2*log2(n)时改用堆排序，保证最坏O(nlogn)
+    private final int[] stack = new int[STACK_SIZE];
+    //并行模式下每个工作线程一份栈：叶子任务在线程里一口气排完，中间不fork也不join，不会有别的任务插进来用同一份栈
+    private static final ThreadLocal<int[]> LEAF_STACK = ThreadLocal.withInitial(() -> new int[STACK_SIZE]);
+    private int granularity = 1 << 13;//并行模式下，小于这个规模的划分直接在当前线程递归
+
+    /**
+     * 并行模式下的切割粒度，至少为10，保证并行划分时三数取中可用
+     */
+    public void setGranularity(int granularity) {
+        this.granularity = Math.max(granularity, 10);
+    }
+
+    /**
+     * 关闭后就是原来的快排，已排好序或者精心构造的输入可能退化到O(n^2)
+     */
+    public void setIntrosort(boolean introsort) {
+        this.introsort = introsort;
+    }
+
+    @Override
+    public void sort() {
+        if (parallelism > 1 && length > granularity) {
+            getPool().invoke(new QuickSortAction(offset, offset + length - 1, HeapSort.depthLimit(length)));
+        } else {
+            recQuickSort(offset, offset + length - 1);
+        }
+    }
+
+    public void recQuickSort(int left, int right) {
+        quickSort(left, right, HeapSort.depthLimit(right - left + 1), stack);
+    }
+
+    private void quickSort(int left, int right, int depth, int[] stack) {
+        int top = 0;
+        while (true) {
+            int size = right - left + 1;
+            if (size > 9) {
+                //递归太深说明枢纽一直选得不好，剩下的部分用堆排序
+                if (introsort && depth == 0) {
+                    HeapSort.heapSort(target, left, right);
+                } else {
+                    long pivot = middle3(left, right);
+                    int middle = partitionIt(left, right, pivot);
+                    depth--;
+                    //较大的一边入栈，较小的一边接着循环
+                    if (middle - left < right - middle) {
+                        stack[top++] = middle + 1;
+                        stack[top++] = right;
+                        stack[top++] = depth;
+                        right = middle - 1;
+                    } else {
+                        stack[top++] = left;
+                        stack[top++] = middle - 1;
+                        stack[top++] = depth;
+                        left = middle + 1;
+                    }
+                    continue;
+                }
+            } else {
+                SmallSort.sort(target, left, right);
+            }
+            if (top == 0) {
+                return;
+            }
+            depth = stack[--top];
+            right = stack[--top];
+            left = stack[--top];
+        }
+    }
+
+    /**
+     * return 右子数组的最左边界
+     *
+     * @param left  左边界
+     * @param right 有边界
+     */
+    private int partitionIt(int left, int right, long pivot) {
+        int leftPart = left;
+        int rightPart = right - 1;
+        while (true) {
+            while (target[++leftPart] < pivot) ;
+            //两边排序的指针要么同时到中间，要么有一方先到达
+            while (target[--rightPart] > pivot) ;
+            if (leftPart >= rightPart) {
+                break;
+            }
+            swap(leftPart, rightPart);
+        }
+        //注意这个需要和right-1交换，因为pivot在right-1位置
+        swap(leftPart, right - 1);
+        return leftPart;
+    }
+
+    /**
+     * 找出左、中间、右中的中位数，并把这个三个数排序
+     *
+     * @return 中位数
+     */
+    private long middle3(int left, int right) {
+        int middle = (left + right) >>> 1;
+        if (target[left] > target[middle]) {
+            swap(left, middle);
+        }
+        if (target[left] > target[right]) {
+            swap(left, right);
+        }
+        if (target[middle] > target[right]) {
+            swap(middle, right);
+        }
+        //最左边的和最右的不用参加排序，所以把基值换到right-1位置
+        swap(middle, right - 1);
+        return target[right - 1];
+    }
+
+    private void swap(int left, int right) {
+        long temp = target[left];
+        target[left] = target[right];
+        target[right] = temp;
+    }
+
+    /**
+     * 划分之后左右两部分互不相交，可以分别提交给ForkJoinPool
+     */
+    @SuppressWarnings("serial")
+    private class QuickSortAction extends RecursiveAction {
+        private final int left;
+        private final int right;
+        private final int depth;
+
+        QuickSortAction(int left, int right, int depth) {
+            this.left = left;
+            this.right = right;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (right - left + 1 <= granularity) {
+                //任务之间并发执行，不能共用实例上的栈
+                quickSort(left, right, depth, LEAF_STACK.get());
+                return;
+            }
+            if (introsort && depth == 0) {
+                HeapSort.heapSort(target, left, right);
+                return;
+            }
+            long pivot = middle3(left, right);
+            int middle = partitionIt(left, right, pivot);
+            invokeAll(new QuickSortAction(left, middle - 1, depth - 1), new QuickSortAction(middle + 1, right, depth - 1));
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.bj.zzq.sort;
+
+/**
+ * 希尔排序，ShellSort的long[]原生数组版本
+ */
+public class LongShellSort extends LongSort {
+    private GapSequence gapSequence;
+
+    public LongShellSort() {
+        this(GapSequence.KNUTH);
+    }
+
+    public LongShellSort(GapSequence gapSequence) {
+        this.gapSequence = gapSequence;
+    }
+
+    public void setGapSequence(GapSequence gapSequence) {
+        this.gapSequence = gapSequence;
+    }
+
+    @Override
+    public void sort() {
+        for (int h : gapSequence.gaps(length)) {
+            insertNOrder(h);
+        }
+    }
+
+    //从左到右一趟完成h排序，各条h链交错推进
+    private void insertNOrder(int n) {
+        int end = offset + length;
+        for (int k = offset + n; k < end; k++) {
+            long temp = target[k];
+            int j;
+            for (j = k - n; j >= offset; j = j - n) {
+                if (temp < target[j]) {
+                    target[j + n] = target[j];
+                } else {
+                    break;
+                }
+            }
+            target[j + n] = temp;
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.bj.zzq.sort;
+
+import java.util.function.Supplier;
+
+/**
+ * 所有LongSort实现的登记表，和IntSortAlgorithm一一对应
+ */
+public enum LongSortAlgorithm {
+    MERGE_SORT(Integer.MAX_VALUE, LongMergeSort::new),
+    INSERT_SORT(100000, LongInsertSort::new),
+    SHELL_SORT(Integer.MAX_VALUE, LongShellSort::new),
+    QUICK_SORT_SMALL3_HAND(Integer.MAX_VALUE, LongQuickSortWithSmall3Hand::new),
+    QUICK_SORT_SMALL9_INSERT(Integer.MAX_VALUE, true, LongQuickSortWithSmall9Insert::new),
+    QUICK_SORT_NO_SMALL3(Integer.MAX_VALUE, LongQuickSortWithNoSmall3::new),
+    QUICK_SORT(Integer.MAX_VALUE, LongQuickSort::new),
+    QUICK_SORT_SIMPLE(100000, LongQuickSortSimple::new),//有序、逆序、山形数据上是O(n^2)
+    CARDINAL_SORT(Integer.MAX_VALUE, true, LongCardinalSort::new),
+    PARALLEL_MERGE_SORT(Integer.MAX_VALUE, true, LongParallelMergeSort::new),
+    DUAL_PIVOT_QUICK_SORT(Integer.MAX_VALUE, LongDualPivotQuickSort::new),
+    THREE_WAY_QUICK_SORT(Integer.MAX_VALUE, LongThreeWayQuickSort::new),
+    ADAPTIVE_MERGE_SORT(Integer.MAX_VALUE, LongAdaptiveMergeSort::new),
+    SHELL_SORT_AUTO_GAP(Integer.MAX_VALUE, () -> new LongShellSort(GapSequence.AUTO));
+
+    private final int maxSize;//超过这个规模耗时不可接受(平方级算法)，压测时不跑
+    private final boolean parallel;//setParallelism是否生效，压测时只有这些算法按多个并行度跑
+    private final Supplier<LongSort> factory;
+
+    LongSortAlgorithm(int maxSize, Supplier<LongSort> factory) {
+        this(maxSize, false, factory);
+    }
+
+    LongSortAlgorithm(int maxSize, boolean parallel, Supplier<LongSort> factory) {
+        this.maxSize = maxSize;
+        this.parallel = parallel;
+        this.factory = factory;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public LongSort create() {
+        return factory.get();
+    }
+}
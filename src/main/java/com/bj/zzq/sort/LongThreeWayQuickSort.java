@@ -0,0 +1,146 @@
+package com.bj.zzq.sort;
+
+/**
+ * 三路划分快速排序，ThreeWayQuickSort的long[]原生数组版本
+ */
+public class LongThreeWayQuickSort extends LongSort {
+    private static final int STACK_SIZE = 3 * 64;//栈里每项是(left, right, depth)
+    private boolean introsort = true;//递归深度超过2*log2(n)时改用堆排序，保证最坏O(nlogn)
+    private final int[] stack = new int[STACK_SIZE];
+
+    /**
+     * 关闭后不再有深度保护，精心构造的输入仍可能退化到O(n^2)
+     */
+    public void setIntrosort(boolean introsort) {
+        this.introsort = introsort;
+    }
+
+    @Override
+    public void sort() {
+        quickSort(offset, offset + length - 1, HeapSort.depthLimit(length));
+    }
+
+    /**
+     * 用显式的栈代替递归：每次弹出一个区间做划分，子区间从大到小入栈，最小的在栈顶先处理。
+     * 这样栈里的区间越往下越大，深度是O(log n)，不受线程栈大小的限制
+     */
+    private void quickSort(int left, int right, int depth) {
+        int top = push(0, depth, left, right);
+        while (top > 0) {
+            depth = stack[--top];
+            right = stack[--top];
+            left = stack[--top];
+            top = partition(left, right, depth, top);
+        }
+    }
+
+    /**
+     * 划分[left, right]，子区间压入栈
+     *
+     * @return 新的栈顶
+     */
+    private int partition(int left, int right, int depth, int top) {
+        int size = right - left + 1;
+        //和QuickSortWithSmall9Insert一样，n<=9时交给SmallSort
+        if (size <= 9) {
+            SmallSort.sort(target, left, right);
+            return top;
+        }
+        if (introsort && depth == 0) {
+            HeapSort.heapSort(target, left, right);
+            return top;
+        }
+        long pivot = middle3(left, right);
+        /*
+         * Bentley-McIlroy划分，扫描过程中的布局：
+         *   left .. p          等于pivot
+         *   p+1 .. i-1         小于pivot
+         *   j+1 .. q-1         大于pivot
+         *   q .. right         等于pivot
+         * 扫描结束后把两端等于pivot的数换到中间，只对小于和大于的两段递归
+         */
+        int i = left;
+        int j = right + 1;
+        int p = left;
+        int q = right + 1;
+        while (true) {
+            while (target[++i] < pivot) {
+                if (i == right) {
+                    break;
+                }
+            }
+            while (pivot < target[--j]) {
+                if (j == left) {
+                    break;
+                }
+            }
+            if (i == j && target[i] == pivot) {
+                swap(++p, i);
+            }
+            if (i >= j) {
+                break;
+            }
+            swap(i, j);
+            if (target[i] == pivot) {
+                swap(++p, i);
+            }
+            if (target[j] == pivot) {
+                swap(--q, j);
+            }
+        }
+        i = j + 1;
+        for (int k = left; k <= p; k++) {
+            swap(k, j--);
+        }
+        for (int k = right; k >= q; k--) {
+            swap(k, i++);
+        }
+        return push2(top, depth - 1, left, j, i, right);
+    }
+
+    private int push(int top, int depth, int left, int right) {
+        if (right > left) {
+            stack[top++] = left;
+            stack[top++] = right;
+            stack[top++] = depth;
+        }
+        return top;
+    }
+
+    //较大的先入栈，较小的在上面先处理
+    private int push2(int top, int depth, int left1, int right1, int left2, int right2) {
+        if (right1 - left1 >= right2 - left2) {
+            top = push(top, depth, left1, right1);
+            return push(top, depth, left2, right2);
+        }
+        top = push(top, depth, left2, right2);
+        return push(top, depth, left1, right1);
+    }
+
+    /**
+     * 左、中、右三个数排好序后把中位数换到最左边作为枢纽
+     *
+     * @return 中位数
+     */
+    private long middle3(int left, int right) {
+        int middle = (left + right) >>> 1;
+        if (target[left] > target[middle]) {
+            swap(left, middle);
+        }
+        if (target[left] > target[right]) {
+            swap(left, right);
+        }
+        if (target[middle] > target[right]) {
+            swap(middle, right);
+        }
+        swap(left, middle);
+        return target[left];
+    }
+
+    private void swap(int left, int right) {
+        long temp = target[left];
+        target[left] = target[right];
+        target[right] = temp;
+    }
+
+}
@@ -8,6 +8,7 @@ import java.util.Random;
  * @Description: 归并排序
  */
 public class MergeSort extends Sort {
+    private static final int INSERT_SORT_THRESHOLD = 16;//小于等于这个规模直接插入排序
     private Integer[] workSpace;//中间数组
     private Integer[] origin;//原数组
     private int nums;
@@ -20,13 +21,28 @@ public class MergeSort extends Sort {
 
     @Override
     public void sort() {
-        workSpace = new Integer[nums];
+        if (nums < 2) {
+            return;
+        }
+        //中间数组够用时复用，不在每次sort时重新分配
+        if (workSpace == null || workSpace.length < nums) {
+            workSpace = new Integer[nums];
+            if (SortMetrics.ENABLED) {
+                SortMetrics.scratch((long) nums * SortMetrics.REFERENCE_BYTES);
+            }
+        }
         merge(workSpace, 0, nums - 1);
     }
 
 
     public void merge(Integer[] workSpace, int start, int end) {
-        if (end == start) {
+        //最底层的小区间不再切到单个元素，直接插入排序；排序网络会打乱相等元素的次序，归并要保持稳定不能用
+        if (end - start < INSERT_SORT_THRESHOLD) {
+            if (SortMetrics.ENABLED) {
+                //每层对半切，到这一层大约切了log2(nums/区间长度)次
+                SortMetrics.depth(32 - Integer.numberOfLeadingZeros(nums / (end - start + 1)));
+            }
+            SmallSort.insertSort(origin, start, end);
             return;
         }
         int mid = (start + end) / 2;
@@ -52,12 +68,18 @@ public class MergeSort extends Sort {
         int beforeIndex = start;
         int afterIndex = mid + 1;
         while (beforeIndex <= mid && afterIndex <= end) {
-            if (origin[beforeIndex] < origin[afterIndex]) {
+            if (origin[beforeIndex] <= origin[afterIndex]) {//相等时先取左边，保持稳定
                 workSpace[start + j++] = origin[beforeIndex++];
             } else {
                 workSpace[start + j++] = origin[afterIndex++];
             }
         }
+        if (SortMetrics.ENABLED) {
+            //两边都还有数时每写一个比较一次；写到中间数组再拷回来，每个数写两次
+            SortMetrics.comparisons(j);
+            SortMetrics.moves(2L * (end - start + 1));
+            SortMetrics.pass();
+        }
         while (beforeIndex <= mid) {
             workSpace[start + j++] = origin[beforeIndex++];
         }
@@ -0,0 +1,225 @@
+package com.bj.zzq.sort;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 并行归并排序，MergeSort的并行版本。原数组和中间数组每一层交替作为源和目标(ping-pong)，开始时只拷贝一次，合并之后不再拷回；
+ * 大的合并用二分切分成两个独立的小合并并行执行，所以最上面几层也能用满多核。单线程时走同样的逻辑，只是不提交任务
+ */
+public class ParallelMergeSort extends Sort {
+    private Integer[] target;
+    private int length;
+    private static final int INSERT_SORT_THRESHOLD = 32;//小于等于这个规模直接插入排序(稳定，不能用SmallSort的排序网络)
+    private Integer[] workSpace;//中间数组，可以由调用方提供，不够大时才重新分配并在之后复用
+    private int granularity = 1 << 13;//并行模式下，小于这个规模的排序或合并直接在当前线程完成
+
+    /**
+     * 使用调用方提供的中间数组，长度不小于排序元素个数时会被直接使用
+     */
+    public void setWorkSpace(Integer[] workSpace) {
+        this.workSpace = workSpace;
+    }
+
+    public void setGranularity(int granularity) {
+        this.granularity = Math.max(granularity, INSERT_SORT_THRESHOLD);
+    }
+
+    @Override
+    public void setTarget(Integer[] target) {
+        this.target = target;
+        this.length = target.length;
+    }
+
+    @Override
+    public void sort() {
+        if (length < 2) {
+            return;
+        }
+        if (workSpace == null || workSpace.length < length) {
+            workSpace = new Integer[length];
+            if (SortMetrics.ENABLED) {
+                SortMetrics.scratch((long) length * SortMetrics.REFERENCE_BYTES);
+            }
+        }
+        //两边都放一份数据，之后每一层只在两者之间交替归并
+        System.arraycopy(target, 0, workSpace, 0, length);
+        if (SortMetrics.ENABLED) {
+            SortMetrics.moves(length);
+        }
+        if (parallelism > 1 && length > granularity) {
+            getPool().invoke(new SortAction(workSpace, 0, target, 0, length));
+        } else {
+            sortTo(workSpace, 0, target, 0, length);
+        }
+    }
+
+    /**
+     * 把n个元素排好序放到dst中，调用时src和dst的对应区间都是这n个数据，src在排序过程中作为中间数组
+     */
+    private void sortTo(Integer[] src, int srcLo, Integer[] dst, int dstLo, int n) {
+        if (n <= INSERT_SORT_THRESHOLD) {
+            if (SortMetrics.ENABLED) {
+                SortMetrics.depth(32 - Integer.numberOfLeadingZeros(length / n));
+            }
+            SmallSort.insertSort(dst, dstLo, dstLo + n - 1);
+            return;
+        }
+        int half = n >>> 1;
+        //交换源和目标，两半排好序的结果落在src中
+        sortTo(dst, dstLo, src, srcLo, half);
+        sortTo(dst, dstLo + half, src, srcLo + half, n - half);
+        //两半已经整体有序，直接拷贝
+        if (src[srcLo + half - 1] <= src[srcLo + half]) {
+            recordCopy(n);
+            System.arraycopy(src, srcLo, dst, dstLo, n);
+            return;
+        }
+        merge(src, srcLo, half, srcLo + half, n - half, dst, dstLo);
+    }
+
+    //合并src中两个有序区间到dst，相等时左边优先，保证稳定
+    private static void merge(Integer[] src, int aLo, int aN, int bLo, int bN, Integer[] dst, int dLo) {
+        int aEnd = aLo + aN;
+        int bEnd = bLo + bN;
+        int i = aLo;
+        int j = bLo;
+        int k = dLo;
+        while (i < aEnd && j < bEnd) {
+            if (src[i] <= src[j]) {
+                dst[k++] = src[i++];
+            } else {
+                dst[k++] = src[j++];
+            }
+        }
+        if (SortMetrics.ENABLED) {
+            SortMetrics.comparisons((i - aLo) + (j - bLo));
+            SortMetrics.moves(aN + bN);
+            SortMetrics.pass();
+        }
+        if (i < aEnd) {
+            System.arraycopy(src, i, dst, k, aEnd - i);
+        } else if (j < bEnd) {
+            System.arraycopy(src, j, dst, k, bEnd - j);
+        }
+    }
+
+    //两半已经整体有序时只比较了一次，整段拷贝
+    private static void recordCopy(int n) {
+        if (SortMetrics.ENABLED) {
+            SortMetrics.comparisons(1);
+            SortMetrics.moves(n);
+        }
+    }
+
+    //第一个大于等于key的位置
+    private static int lowerBound(Integer[] target, int lo, int hi, int key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (target[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    //第一个大于key的位置
+    private static int upperBound(Integer[] target, int lo, int hi, int key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (target[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    @SuppressWarnings("serial")
+    private class SortAction extends RecursiveAction {
+        private final Integer[] src;
+        private final int srcLo;
+        private final Integer[] dst;
+        private final int dstLo;
+        private final int n;
+
+        SortAction(Integer[] src, int srcLo, Integer[] dst, int dstLo, int n) {
+            this.src = src;
+            this.srcLo = srcLo;
+            this.dst = dst;
+            this.dstLo = dstLo;
+            this.n = n;
+        }
+
+        @Override
+        protected void compute() {
+            if (n <= granularity) {
+                sortTo(src, srcLo, dst, dstLo, n);
+                return;
+            }
+            int half = n >>> 1;
+            invokeAll(new SortAction(dst, dstLo, src, srcLo, half),
+                    new SortAction(dst, dstLo + half, src, srcLo + half, n - half));
+            if (src[srcLo + half - 1] <= src[srcLo + half]) {
+                recordCopy(n);
+                System.arraycopy(src, srcLo, dst, dstLo, n);
+                return;
+            }
+            new MergeAction(src, srcLo, half, srcLo + half, n - half, dst, dstLo).compute();
+        }
+    }
+
+    /**
+     * 取较长一段的中间元素，在另一段中二分找到它的位置，这个元素的最终位置就确定了，
+     * 左右两边变成两个互不相关的合并，可以并行执行
+     */
+    @SuppressWarnings("serial")
+    private class MergeAction extends RecursiveAction {
+        private final Integer[] src;
+        private final int aLo;
+        private final int aN;
+        private final int bLo;
+        private final int bN;
+        private final Integer[] dst;
+        private final int dLo;
+
+        MergeAction(Integer[] src, int aLo, int aN, int bLo, int bN, Integer[] dst, int dLo) {
+            this.src = src;
+            this.aLo = aLo;
+            this.aN = aN;
+            this.bLo = bLo;
+            this.bN = bN;
+            this.dst = dst;
+            this.dLo = dLo;
+        }
+
+        @Override
+        protected void compute() {
+            if (aN + bN <= granularity || aN == 0 || bN == 0) {
+                merge(src, aLo, aN, bLo, bN, dst, dLo);
+                return;
+            }
+            int aSplit;
+            int bSplit;
+            if (aN >= bN) {
+                aSplit = aLo + (aN >>> 1);
+                //右段中严格小于它的元素排在它前面
+                bSplit = lowerBound(src, bLo, bLo + bN, src[aSplit]);
+                int pos = dLo + (aSplit - aLo) + (bSplit - bLo);
+                dst[pos] = src[aSplit];
+                invokeAll(new MergeAction(src, aLo, aSplit - aLo, bLo, bSplit - bLo, dst, dLo),
+                        new MergeAction(src, aSplit + 1, aLo + aN - aSplit - 1, bSplit, bLo + bN - bSplit, dst, pos + 1));
+            } else {
+                bSplit = bLo + (bN >>> 1);
+                //左段中小于等于它的元素排在它前面
+                aSplit = upperBound(src, aLo, aLo + aN, src[bSplit]);
+                int pos = dLo + (aSplit - aLo) + (bSplit - bLo);
+                dst[pos] = src[bSplit];
+                invokeAll(new MergeAction(src, aLo, aSplit - aLo, bLo, bSplit - bLo, dst, dLo),
+                        new MergeAction(src, aSplit, aLo + aN - aSplit, bSplit + 1, bLo + bN - bSplit - 1, dst, pos + 1));
+            }
+        }
+    }
+}
@@ -8,7 +8,9 @@ import java.util.Random;
  * @Description: 快速排序-简版
  */
 public class QuickSortSimple extends Sort {
+    private static final int STACK_SIZE = 3 * 32;//栈里每项是(left, right, depth)，depth是区间所在的层数，只用于统计
     private Integer[] target;
+    private final int[] stack = new int[STACK_SIZE];
 
     @Override
     public void setTarget(Integer[] target) {
@@ -21,28 +23,39 @@ public class QuickSortSimple extends Sort {
     }
 
 
+    /**
+     * 较大的一边入栈，较小的一边接着循环，栈深不超过log2(n)。两边都递归的话，已排好序的输入每次只切掉一个数，递归深度就是n
+     */
     public void recQuickSort(int left, int right) {
-        //此处不必拘泥于3。处理小划分的另外一种方法是采用插入排序，可以把界限设置为10，20等。Knuth推荐使用9作为切割点
-        //重点：在小数组中使用插入排序被证实是最快的一种排序方法（例如小于10中）【JAVA数据结构与算法P269】
-        if (left >= right) return;
-        int pivot = target[right];
-        int middle = partitionIt(left, right, pivot);
-        recQuickSort(left, middle - 1);
-        recQuickSort(middle + 1, right);
-    }
-
-    private void insertSort(int left, int right) {
-        for (int i = left + 1; i <= right; i++) {
-            int temp = target[i];
-            int j;
-            for (j = i - 1; j >= 0; j--) {
-                if (temp < target[j]) {
-                    target[j + 1] = target[j];
+        int top = 0;
+        int depth = 0;
+        while (true) {
+            if (left < right) {
+                int pivot = target[right];
+                int middle = partitionIt(left, right, pivot);
+                depth++;
+                if (SortMetrics.ENABLED) {
+                    SortMetrics.depth(depth);
+                }
+                if (middle - left < right - middle) {
+                    stack[top++] = middle + 1;
+                    stack[top++] = right;
+                    stack[top++] = depth;
+                    right = middle - 1;
                 } else {
-                    break;
+                    stack[top++] = left;
+                    stack[top++] = middle - 1;
+                    stack[top++] = depth;
+                    left = middle + 1;
                 }
+                continue;
+            }
+            if (top == 0) {
+                return;
             }
-            target[j + 1] = temp;
+            depth = stack[--top];
+            right = stack[--top];
+            left = stack[--top];
         }
     }
 
@@ -64,34 +77,15 @@ public class QuickSortSimple extends Sort {
             }
             swap(leftPart, rightPart);
         }
+        if (SortMetrics.ENABLED) {
+            SortMetrics.comparisons((leftPart - left + 1) + (right - rightPart));
+            SortMetrics.pass();
+        }
         //注意这个需要和right-1交换，因为pivot在right-1位置
         swap(leftPart, right);
         return leftPart;
     }
 
-    private void manualSort(int left, int right) {
-        int size = right - left + 1;
-        if (size <= 1) {
-            return;
-        }
-        if (size == 2) {
-            if (target[left] > target[right]) {
-                swap(left, right);
-            }
-        }
-        if (size == 3) {
-            if (target[left] > target[right - 1]) {
-                swap(left, right - 1);
-            }
-            if (target[left] > target[right]) {
-                swap(left, right);
-            }
-            if (target[right - 1] > target[right]) {
-                swap(right - 1, right);
-            }
-        }
-    }
-
 
     /**
      * 当排序范围大于三个数时，找出左、中间、右中的中位数，并把这个三个数排序
@@ -118,6 +112,9 @@ public class QuickSortSimple extends Sort {
     }
 
     private void swap(int left, int right) {
+        if (SortMetrics.ENABLED) {
+            SortMetrics.moves(2);
+        }
         int temp = target[left];
         target[left] = target[right];
         target[right] = temp;
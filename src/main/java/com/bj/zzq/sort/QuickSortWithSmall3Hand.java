@@ -9,13 +9,23 @@ import java.util.Random;
  * @Description: 快速排序
  */
 public class QuickSortWithSmall3Hand extends Sort {
+    private static final int STACK_SIZE = 3 * 64;//栈里每项是(left, right, depth)，先处理较小的一边时int范围内不超过31项
     private Integer[] target;
+    private boolean introsort = true;//递归深度超过2*log2(n)时改用堆排序，保证最坏O(nlogn)
+    private final int[] stack = new int[STACK_SIZE];
 
     @Override
     public void setTarget(Integer[] target) {
         this.target = target;
     }
 
+    /**
+     * 关闭后就是原来的快排，已排好序或者精心构造的输入可能退化到O(n^2)
+     */
+    public void setIntrosort(boolean introsort) {
+        this.introsort = introsort;
+    }
+
     @Override
     public void sort() {
         recQuickSort(0, target.length - 1);
@@ -23,34 +33,52 @@ public class QuickSortWithSmall3Hand extends Sort {
 
 
     public void recQuickSort(int left, int right) {
-        int size = right - left + 1;
-        //此处不必拘泥于3。处理小划分的另外一种方法是采用插入排序，可以把界限设置为10，20等。Knuth推荐使用9作为切割点
-        //重点：在小数组中使用插入排序被证实是最快的一种排序方法（例如小于10中）【JAVA数据结构与算法P269】
+        quickSort(left, right, HeapSort.depthLimit(right - left + 1));
+    }
+
+    private void quickSort(int left, int right, int depth) {
+        int top = 0;
+        while (true) {
+            int size = right - left + 1;
+            //此处不必拘泥于3。处理小划分的另外一种方法是采用插入排序，可以把界限设置为10，20等。Knuth推荐使用9作为切割点
+            //重点：在小数组中使用插入排序被证实是最快的一种排序方法（例如小于10中）【JAVA数据结构与算法P269】
 //        if (size < 10) {
 //            insertSort(left, right);
 //        }
-        if (size > 3) {
-            int pivot = middle3(left, right);
-            int middle = partitionIt(left, right, pivot);
-            recQuickSort(left, middle - 1);
-            recQuickSort(middle + 1, right);
-        } else {
-            manualSort(left, right);
-        }
-    }
-
-    private void insertSort(int left, int right) {
-        for (int i = left + 1; i <= right; i++) {
-            int temp = target[i];
-            int j;
-            for (j = i - 1; j >= 0; j--) {
-                if (temp < target[j]) {
-                    target[j + 1] = target[j];
+            if (size > 3) {
+                //递归太深说明枢纽一直选得不好，剩下的部分用堆排序
+                if (introsort && depth == 0) {
+                    HeapSort.heapSort(target, left, right);
                 } else {
-                    break;
+                    int pivot = middle3(left, right);
+                    int middle = partitionIt(left, right, pivot);
+                    depth--;
+                    if (SortMetrics.ENABLED) {
+                        SortMetrics.depth(HeapSort.depthLimit(target.length) - depth);
+                    }
+                    //较大的一边入栈，较小的一边接着循环
+                    if (middle - left < right - middle) {
+                        stack[top++] = middle + 1;
+                        stack[top++] = right;
+                        stack[top++] = depth;
+                        right = middle - 1;
+                    } else {
+                        stack[top++] = left;
+                        stack[top++] = middle - 1;
+                        stack[top++] = depth;
+                        left = middle + 1;
+                    }
+                    continue;
                 }
+            } else {
+                SmallSort.sort(target, left, right);
+            }
+            if (top == 0) {
+                return;
             }
-            target[j + 1] = temp;
+            depth = stack[--top];
+            right = stack[--top];
+            left = stack[--top];
         }
     }
 
@@ -72,34 +100,16 @@ public class QuickSortWithSmall3Hand extends Sort {
             }
             swap(leftPart, rightPart);
         }
+        if (SortMetrics.ENABLED) {
+            //指针每移动一步比较一次
+            SortMetrics.comparisons((leftPart - left) + (right - 1 - rightPart));
+            SortMetrics.pass();
+        }
         //注意这个需要和right-1交换，因为pivot在right-1位置
         swap(leftPart, right - 1);
         return leftPart;
     }
 
-    private void manualSort(int left, int right) {
-        int size = right - left + 1;
-        if (size <= 1) {
-            return;
-        }
-        if (size == 2) {
-            if (target[left] > target[right]) {
-                swap(left, right);
-            }
-        }
-        if (size == 3) {
-            if (target[left] > target[right - 1]) {
-                swap(left, right - 1);
-            }
-            if (target[left] > target[right]) {
-                swap(left, right);
-            }
-            if (target[right - 1] > target[right]) {
-                swap(right - 1, right);
-            }
-        }
-    }
-
 
     /**
      * 当排序范围大于三个数时，找出左、中间、右中的中位数，并把这个三个数排序
@@ -110,6 +120,9 @@ public class QuickSortWithSmall3Hand extends Sort {
      */
     private int middle3(int left, int right) {
         int middle = (left + right) / 2;
+        if (SortMetrics.ENABLED) {
+            SortMetrics.comparisons(3);
+        }
         //三个数可以考虑插入排序
         if (target[left] > target[middle]) {
             swap(left, middle);
@@ -126,6 +139,9 @@ public class QuickSortWithSmall3Hand extends Sort {
     }
 
     private void swap(int left, int right) {
+        if (SortMetrics.ENABLED) {
+            SortMetrics.moves(2);
+        }
         int temp = target[left];
         target[left] = target[right];
         target[right] = temp;
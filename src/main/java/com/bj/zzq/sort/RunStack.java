@@ -0,0 +1,148 @@
+/*
+ * Portions of this file are adapted from OpenJDK's java.util.TimSort and
+ * java.util.ComparableTimSort by Josh Bloch, after Tim Peters's listsort.
+ * Copyright (c) 2009, 2013, Oracle and/or its affiliates. All rights reserved.
+ * Copyright 2009 Google Inc.  All Rights Reserved.
+ * Those portions are used under the GNU General Public License version 2 only,
+ * with the "Classpath" exception; see https://openjdk.org/legal/gplv2+ce.html
+ */
+package com.bj.zzq.sort;
+
+/**
+ * AdaptiveMergeSort、IntAdaptiveMergeSort、LongAdaptiveMergeSort共用的run栈：切分run的主循环、minRun、
+ * 栈不变式和galloping阈值，这些都和元素类型无关。找run、二分插入、合并相邻两个run要逐个比较元素，由各排序按自己的数组类型实现，
+ * 这里每个run只回调一次，不在逐个元素的循环里。
+ * minRun的计算、栈不变式、栈的大小和minGallop初值改写自OpenJDK的java.util.TimSort，按GPLv2 with Classpath Exception使用，见文件头
+ */
+abstract class RunStack {
+    static final int MIN_MERGE = 32;//小于这个规模直接二分插入排序，也是最短run长度的上限
+    static final int MIN_GALLOP = 7;//连续从同一个run取这么多个数后进入galloping模式
+
+    int minGallop;//进入galloping的阈值，galloping有效时降低，无效时升高，合并时由实现读写
+    //待合并run的栈，int范围内的长度满足栈不变式时不会超过49层
+    private final int[] runBase = new int[49];
+    private final int[] runLen = new int[49];
+    private int stackSize;
+
+    /**
+     * 从lo开始的最长run的长度，严格降序的run原地翻转成升序
+     */
+    abstract int countRunAndMakeAscending(int lo, int hi);
+
+    /**
+     * [lo, start)已经有序，把[start, hi)逐个二分插入，相等的数插在后面
+     */
+    abstract void binaryInsertSort(int lo, int hi, int start);
+
+    /**
+     * 保证中间数组至少能放下size个数
+     */
+    abstract void ensureWorkSpace(int size);
+
+    /**
+     * 稳定合并相邻的两个有序run：[base1, base1+len1)和[base2, base2+len2)，base2 = base1 + len1
+     */
+    abstract void mergeRuns(int base1, int len1, int base2, int len2);
+
+    /**
+     * 压入一个run后的栈深度，统计用
+     */
+    void pushed(int stackSize) {
+    }
+
+    /**
+     * 排序[lo, hi)
+     */
+    final void sort(int lo, int hi) {
+        int remaining = hi - lo;
+        if (remaining < 2) {
+            return;
+        }
+        if (remaining < MIN_MERGE) {
+            int initRunLen = countRunAndMakeAscending(lo, hi);
+            binaryInsertSort(lo, hi, lo + initRunLen);
+            return;
+        }
+        ensureWorkSpace(remaining >>> 1);
+        minGallop = MIN_GALLOP;
+        stackSize = 0;
+        int minRun = minRunLength(remaining);
+        do {
+            //找出自然有序的run，太短的用二分插入排序补足到minRun
+            int runLen = countRunAndMakeAscending(lo, hi);
+            if (runLen < minRun) {
+                int force = remaining <= minRun ? remaining : minRun;
+                binaryInsertSort(lo, lo + force, lo + runLen);
+                runLen = force;
+            }
+            pushRun(lo, runLen);
+            mergeCollapse();
+            lo += runLen;
+            remaining -= runLen;
+        } while (remaining != 0);
+        mergeForceCollapse();
+    }
+
+    /**
+     * n小于MIN_MERGE时返回n；否则返回[MIN_MERGE/2, MIN_MERGE]之间的k，使n/k等于或略小于2的幂，最后的合并比较均衡
+     */
+    private static int minRunLength(int n) {
+        int r = 0;
+        while (n >= MIN_MERGE) {
+            r |= (n & 1);
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+    private void pushRun(int base, int len) {
+        runBase[stackSize] = base;
+        runLen[stackSize] = len;
+        stackSize++;
+        pushed(stackSize);
+    }
+
+    /**
+     * 维持栈不变式：runLen[i-2] > runLen[i-1] + runLen[i]，runLen[i-1] > runLen[i]。
+     * 这样run的长度至少按斐波那契数增长，合并总是在长度相近的run之间进行
+     */
+    private void mergeCollapse() {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLen[n - 1] <= runLen[n] + runLen[n + 1]
+                    || n > 1 && runLen[n - 2] <= runLen[n] + runLen[n - 1]) {
+                if (runLen[n - 1] < runLen[n + 1]) {
+                    n--;
+                }
+            } else if (runLen[n] > runLen[n + 1]) {
+                break;
+            }
+            mergeAt(n);
+        }
+    }
+
+    private void mergeForceCollapse() {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLen[n - 1] < runLen[n + 1]) {
+                n--;
+            }
+            mergeAt(n);
+        }
+    }
+
+    //合并栈中第i和i+1个run
+    private void mergeAt(int i) {
+        int base1 = runBase[i];
+        int len1 = runLen[i];
+        int base2 = runBase[i + 1];
+        int len2 = runLen[i + 1];
+        runLen[i] = len1 + len2;
+        if (i == stackSize - 3) {
+            runBase[i + 1] = runBase[i + 2];
+            runLen[i + 1] = runLen[i + 2];
+        }
+        stackSize--;
+        mergeRuns(base1, len1, base2, len2);
+    }
+}
@@ -0,0 +1,271 @@
+package com.bj.zzq.sort;
+
+/**
+ * 选择算法(第k小)，保证最坏线性时间。正常情况用Floyd-Rivest：先在一小段样本里递归选出枢纽，枢纽的排名几乎就是k，
+ * 一趟三路划分之后只剩很小的区间；小区间用三数取中。一次划分没能把区间缩小到3/4以下算一次坏划分，
+ * 坏划分超过BAD_PARTITION_LIMIT次后改用五分组的中位数的中位数做枢纽，每次至少去掉3/10，总的工作量仍是线性。
+ * 多选(selectAll)一次给出多个位置，只继续划分含有待选位置的区间，q个位置的总工作量是O(nlogq)，而不是q次O(n)
+ */
+public final class Selection {
+    private static final int FLOYD_RIVEST_MIN_SIZE = 600;//小于这个规模时取样不划算，用三数取中
+    private static final int BAD_PARTITION_LIMIT = 4;
+
+    private Selection() {
+    }
+
+    /**
+     * 选择：把target[left, right]重排，使target[index]就是这一段排好序后该位置的数，左边都不大于它，右边都不小于它
+     */
+    public static void select(int[] target, int left, int right, int index) {
+        if (index < left || index > right) {
+            throw new ArrayIndexOutOfBoundsException("index=" + index + ",left=" + left + ",right=" + right);
+        }
+        int badPartitions = 0;
+        while (right - left >= SmallSort.NETWORK_MAX_SIZE) {
+            int size = right - left + 1;
+            int pivot;
+            if (badPartitions > BAD_PARTITION_LIMIT) {
+                pivot = medianOfMedians(target, left, right);
+            } else if (size > FLOYD_RIVEST_MIN_SIZE) {
+                pivot = floydRivestPivot(target, left, right, index);
+            } else {
+                pivot = median3(target, left, right);
+            }
+            //三路划分，等于枢纽的数在[lessPart, greatPart]
+            int lessPart = left;
+            int i = left;
+            int greatPart = right;
+            while (i <= greatPart) {
+                if (target[i] < pivot) {
+                    swap(target, lessPart++, i++);
+                } else if (target[i] > pivot) {
+                    swap(target, i, greatPart--);
+                } else {
+                    i++;
+                }
+            }
+            if (index < lessPart) {
+                right = lessPart - 1;
+            } else if (index > greatPart) {
+                left = greatPart + 1;
+            } else {
+                return;
+            }
+            if (right - left + 1 > size - (size >> 2)) {
+                badPartitions++;
+            }
+        }
+        SmallSort.sort(target, left, right);
+    }
+
+    /**
+     * 多选：一次把indexes里的每个位置都放到位，效果和对每个位置分别调用select一样。
+     * 先选出中间那个位置，select保证它左边都不大于、右边都不小于它，两边各自只带着落在自己里面的位置递归，
+     * 不含待选位置的区间不再碰
+     *
+     * @param indexes 从小到大(可以重复)，都在[left, right]内
+     */
+    public static void selectAll(int[] target, int left, int right, int[] indexes) {
+        checkIndexes(left, right, indexes);
+        selectAll((l, r, index) -> select(target, l, r, index), left, right, indexes, 0, indexes.length - 1);
+    }
+
+    /**
+     * selectAll只和下标有关，具体数组上的select由RangeSelector给出，int[]和Integer[]共用
+     */
+    private interface RangeSelector {
+        void select(int left, int right, int index);
+    }
+
+    private static void selectAll(RangeSelector selector, int left, int right, int[] indexes, int from, int to) {
+        while (from <= to) {
+            if (right - left < SmallSort.NETWORK_MAX_SIZE) {
+                //区间小于排序网络的上限时select直接整段排序，剩下的位置一次就位
+                selector.select(left, right, left);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            int index = indexes[middle];
+            selector.select(left, right, index);
+            //和index相同的位置已经就位
+            int lower = middle - 1;
+            while (lower >= from && indexes[lower] == index) {
+                lower--;
+            }
+            int upper = middle + 1;
+            while (upper <= to && indexes[upper] == index) {
+                upper++;
+            }
+            //递归较少的一边，较多的一边留在循环里
+            if (lower - from < to - upper) {
+                selectAll(selector, left, index - 1, indexes, from, lower);
+                left = index + 1;
+                from = upper;
+            } else {
+                selectAll(selector, index + 1, right, indexes, upper, to);
+                right = index - 1;
+                to = lower;
+            }
+        }
+    }
+
+    private static void checkIndexes(int left, int right, int[] indexes) {
+        for (int i = 0; i < indexes.length; i++) {
+            if (indexes[i] < left || indexes[i] > right) {
+                throw new ArrayIndexOutOfBoundsException("index=" + indexes[i] + ",left=" + left + ",right=" + right);
+            }
+            if (i > 0 && indexes[i] < indexes[i - 1]) {
+                throw new IllegalArgumentException("indexes not sorted at " + i);
+            }
+        }
+    }
+
+    /**
+     * 从[left, right]中按index的相对位置取一段约n^(2/3)大小的样本区间，在样本区间里递归选出index位置的数。
+     * 这个数在整个区间里的排名以很高的概率紧挨着index，划分后剩下的区间很小
+     */
+    private static int floydRivestPivot(int[] target, int left, int right, int index) {
+        long sample = floydRivestSample(left, right, index);
+        select(target, (int) (sample >>> 32), (int) sample, index);
+        return target[index];
+    }
+
+    /**
+     * Floyd-Rivest的样本区间，只和下标有关，int[]和Integer[]共用
+     *
+     * @return 高32位是样本左端，低32位是样本右端，都含在内，且一定包含index
+     */
+    private static long floydRivestSample(int left, int right, int index) {
+        double n = right - left + 1;
+        double i = index - left + 1;
+        double z = Math.log(n);
+        double s = 0.5 * Math.exp(2 * z / 3);
+        double sd = 0.5 * Math.sqrt(z * s * (n - s) / n) * Math.signum(i - n / 2);
+        int sampleLeft = (int) Math.max(left, Math.floor(index - i * s / n + sd));
+        int sampleRight = (int) Math.min(right, Math.floor(index + (n - i) * s / n + sd));
+        //sd可能把样本区间整体推开，保证index还在里面
+        sampleLeft = Math.min(sampleLeft, index);
+        sampleRight = Math.max(sampleRight, index);
+        return (long) sampleLeft << 32 | sampleRight;
+    }
+
+    /**
+     * 5个一组取中位数，放到区间开头，再递归选出这些中位数的中位数。
+     * 它至少大于、也至少小于约3/10的数，划分后区间至多剩7/10，保证线性
+     */
+    private static int medianOfMedians(int[] target, int left, int right) {
+        int groups = 0;
+        for (int groupLeft = left; groupLeft + 4 <= right; groupLeft += 5) {
+            SmallSort.sort(target, groupLeft, groupLeft + 4);
+            swap(target, left + groups++, groupLeft + 2);
+        }
+        int middle = left + (groups - 1) / 2;
+        select(target, left, left + groups - 1, middle);
+        return target[middle];
+    }
+
+    private static int median3(int[] target, int left, int right) {
+        int middle = (left + right) >>> 1;
+        if (target[middle] < target[left]) {
+            swap(target, left, middle);
+        }
+        if (target[right] < target[left]) {
+            swap(target, left, right);
+        }
+        if (target[right] < target[middle]) {
+            swap(target, middle, right);
+        }
+        return target[middle];
+    }
+
+    private static void swap(int[] target, int left, int right) {
+        int temp = target[left];
+        target[left] = target[right];
+        target[right] = temp;
+    }
+
+    public static void select(Integer[] target, int left, int right, int index) {
+        if (index < left || index > right) {
+            throw new ArrayIndexOutOfBoundsException("index=" + index + ",left=" + left + ",right=" + right);
+        }
+        int badPartitions = 0;
+        while (right - left >= SmallSort.NETWORK_MAX_SIZE) {
+            int size = right - left + 1;
+            int pivot;
+            if (badPartitions > BAD_PARTITION_LIMIT) {
+                pivot = medianOfMedians(target, left, right);
+            } else if (size > FLOYD_RIVEST_MIN_SIZE) {
+                pivot = floydRivestPivot(target, left, right, index);
+            } else {
+                pivot = median3(target, left, right);
+            }
+            //三路划分，等于枢纽的数在[lessPart, greatPart]
+            int lessPart = left;
+            int i = left;
+            int greatPart = right;
+            while (i <= greatPart) {
+                if (target[i] < pivot) {
+                    swap(target, lessPart++, i++);
+                } else if (target[i] > pivot) {
+                    swap(target, i, greatPart--);
+                } else {
+                    i++;
+                }
+            }
+            if (index < lessPart) {
+                right = lessPart - 1;
+            } else if (index > greatPart) {
+                left = greatPart + 1;
+            } else {
+                return;
+            }
+            if (right - left + 1 > size - (size >> 2)) {
+                badPartitions++;
+            }
+        }
+        SmallSort.sort(target, left, right);
+    }
+
+    public static void selectAll(Integer[] target, int left, int right, int[] indexes) {
+        checkIndexes(left, right, indexes);
+        selectAll((l, r, index) -> select(target, l, r, index), left, right, indexes, 0, indexes.length - 1);
+    }
+
+    private static int floydRivestPivot(Integer[] target, int left, int right, int index) {
+        long sample = floydRivestSample(left, right, index);
+        select(target, (int) (sample >>> 32), (int) sample, index);
+        return target[index];
+    }
+
+    private static int medianOfMedians(Integer[] target, int left, int right) {
+        int groups = 0;
+        for (int groupLeft = left; groupLeft + 4 <= right; groupLeft += 5) {
+            SmallSort.sort(target, groupLeft, groupLeft + 4);
+            swap(target, left + groups++, groupLeft + 2);
+        }
+        int middle = left + (groups - 1) / 2;
+        select(target, left, left + groups - 1, middle);
+        return target[middle];
+    }
+
+    private static int median3(Integer[] target, int left, int right) {
+        int middle = (left + right) >>> 1;
+        if (target[middle] < target[left]) {
+            swap(target, left, middle);
+        }
+        if (target[right] < target[left]) {
+            swap(target, left, right);
+        }
+        if (target[right] < target[middle]) {
+            swap(target, middle, right);
+        }
+        return target[middle];
+    }
+
+    private static void swap(Integer[] target, int left, int right) {
+        Integer temp = target[left];
+        target[left] = target[right];
+        target[right] = temp;
+    }
+
+}
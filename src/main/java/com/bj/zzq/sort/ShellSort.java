@@ -6,10 +6,27 @@ import java.util.Random;
 /**
  * @Author: zhaozhiqiang
  * @Date: 2019/4/2
- * @Description: 希尔排序
+ * @Description: 希尔排序。增量序列可配置(见GapSequence)，默认还是Knuth的h=3h+1；
+ * 每一趟从左到右把各条h链交错着做插入排序，而不是一条链走完再走下一条，h很大时也是顺序访问内存
  */
 public class ShellSort extends Sort {
     private Integer[] target;
+    private GapSequence gapSequence;
+
+    public ShellSort() {
+        this(GapSequence.KNUTH);
+    }
+
+    public ShellSort(GapSequence gapSequence) {
+        this.gapSequence = gapSequence;
+    }
+
+    /**
+     * GapSequence.AUTO按数组规模选择序列
+     */
+    public void setGapSequence(GapSequence gapSequence) {
+        this.gapSequence = gapSequence;
+    }
 
     @Override
     public void setTarget(Integer[] target) {
@@ -18,30 +35,34 @@ public class ShellSort extends Sort {
 
     @Override
     public void sort() {
-        int h = 1;
-        while (h < target.length) {
-            h = 3 * h + 1;
-        }
-        while (h > 1) {
-            h = (h - 1) / 3;
+        for (int h : gapSequence.gaps(target.length)) {
             insertNOrder(h);
         }
     }
 
+    //从左到右一趟完成h排序，各条h链交错推进
     private void insertNOrder(int n) {
-        for (int i = 0; i < n; i++) {
-            for (int k = i; k < target.length; k = k + n) {
-                int temp = target[k];
-                int j;
-                for (j = k - n; j >= i; j = j - n) {
-                    if (temp < target[j]) {
-                        target[j + n] = target[j];
-                    } else {
-                        break;
-                    }
+        long comparisons = 0;//只在统计时有用，关闭统计时JIT会连同累加一起删掉
+        long moves = 0;
+        for (int k = n; k < target.length; k++) {
+            Integer temp = target[k];
+            int j;
+            for (j = k - n; j >= 0; j = j - n) {
+                if (temp < target[j]) {
+                    target[j + n] = target[j];
+                } else {
+                    break;
                 }
-                target[j + n] = temp;
             }
+            target[j + n] = temp;
+            int shifted = (k - n - j) / n;
+            comparisons += shifted + (j >= 0 ? 1 : 0);
+            moves += shifted + 1;
+        }
+        if (SortMetrics.ENABLED) {
+            SortMetrics.comparisons(comparisons);
+            SortMetrics.moves(moves);
+            SortMetrics.pass();
         }
 //        System.out.println("h=" + n);
 //        display();
@@ -0,0 +1,178 @@
+package com.bj.zzq.sort;
+
+/**
+ * 小区间排序的公共内核，快排的小划分、选择算法最后剩下的小区间用sort，归并的最底层用insertSort。
+ * n<=16时sort用排序网络：比较交换的顺序是固定的，和数据无关，用min/max写成无分支的形式，不会因为分支预测失败而停顿；
+ * 排序网络不稳定，相等的元素可能交换次序，要求稳定的归并排序只能用insertSort。
+ * 网络由Batcher的merge-exchange(Knuth 5.2.2算法M)生成，不是最优网络：n<=8时比较器个数等于最优值(1,3,5,9,12,16,19)，
+ * 9~16时是26,31,37,41,48,53,59,63个，比已知最小的网络(25,29,35,39,45,51,56,60)多1~3个，换来的是任意n都按同一规则生成，不用逐个手写。
+ * 更大的区间用带边界检查的插入排序
+ */
+public final class SmallSort {
+    public static final int NETWORK_MAX_SIZE = 16;
+    //NETWORKS[n]是n个数的网络，依次两个一组是要比较交换的两个相对下标(前小后大)
+    private static final int[][] NETWORKS = new int[NETWORK_MAX_SIZE + 1][];
+
+    static {
+        for (int n = 2; n <= NETWORK_MAX_SIZE; n++) {
+            NETWORKS[n] = mergeExchange(n);
+        }
+    }
+
+    private SmallSort() {
+    }
+
+    /**
+     * Knuth 5.2.2算法M：p从2^(t-1)减半到1，每个p下d依次取p, q-p(q从2^(t-1)减半到p)，
+     * 比较交换所有满足(i & p) == r的(i, i+d)
+     */
+    static int[] mergeExchange(int n) {
+        int t = 32 - Integer.numberOfLeadingZeros(n - 1);
+        int[] network = new int[n * n];
+        int size = 0;
+        for (int p = 1 << (t - 1); p > 0; p >>= 1) {
+            int q = 1 << (t - 1);
+            int r = 0;
+            int d = p;
+            while (true) {
+                for (int i = 0; i < n - d; i++) {
+                    if ((i & p) == r) {
+                        network[size++] = i;
+                        network[size++] = i + d;
+                    }
+                }
+                if (q == p) {
+                    break;
+                }
+                d = q - p;
+                q >>= 1;
+                r = p;
+            }
+        }
+        int[] result = new int[size];
+        System.arraycopy(network, 0, result, 0, size);
+        return result;
+    }
+
+    /**
+     * 对target[left, right]排序，n<=16时用排序网络，否则插入排序。不稳定
+     */
+    public static void sort(int[] target, int left, int right) {
+        int size = right - left + 1;
+        if (size > NETWORK_MAX_SIZE) {
+            insertSort(target, left, right);
+        } else if (size > 1) {
+            int[] network = NETWORKS[size];
+            for (int k = 0; k < network.length; k += 2) {
+                int i = left + network[k];
+                int j = left + network[k + 1];
+                int x = target[i];
+                int y = target[j];
+                target[i] = Math.min(x, y);
+                target[j] = Math.max(x, y);
+            }
+        }
+    }
+
+    public static void sort(long[] target, int left, int right) {
+        int size = right - left + 1;
+        if (size > NETWORK_MAX_SIZE) {
+            insertSort(target, left, right);
+        } else if (size > 1) {
+            int[] network = NETWORKS[size];
+            for (int k = 0; k < network.length; k += 2) {
+                int i = left + network[k];
+                int j = left + network[k + 1];
+                long x = target[i];
+                long y = target[j];
+                target[i] = Math.min(x, y);
+                target[j] = Math.max(x, y);
+            }
+        }
+    }
+
+    /**
+     * 对象数组没有无分支的min/max，但比较顺序固定，仍然省掉了插入排序的内层循环
+     */
+    public static void sort(Integer[] target, int left, int right) {
+        int size = right - left + 1;
+        if (size > NETWORK_MAX_SIZE) {
+            insertSort(target, left, right);
+        } else if (size > 1) {
+            int[] network = NETWORKS[size];
+            long moves = 0;//只在统计时有用
+            for (int k = 0; k < network.length; k += 2) {
+                int i = left + network[k];
+                int j = left + network[k + 1];
+                Integer x = target[i];
+                Integer y = target[j];
+                if (y < x) {
+                    target[i] = y;
+                    target[j] = x;
+                    moves += 2;
+                }
+            }
+            if (SortMetrics.ENABLED) {
+                SortMetrics.comparisons(network.length >> 1);
+                SortMetrics.moves(moves);
+            }
+        }
+    }
+
+    /**
+     * 插入排序，只在[left, right]内移动，不会越过left。相等时不移动，是稳定的
+     */
+    public static void insertSort(int[] target, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            int temp = target[i];
+            int j;
+            for (j = i - 1; j >= left; j--) {
+                if (temp < target[j]) {
+                    target[j + 1] = target[j];
+                } else {
+                    break;
+                }
+            }
+            target[j + 1] = temp;
+        }
+    }
+
+    public static void insertSort(long[] target, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            long temp = target[i];
+            int j;
+            for (j = i - 1; j >= left; j--) {
+                if (temp < target[j]) {
+                    target[j + 1] = target[j];
+                } else {
+                    break;
+                }
+            }
+            target[j + 1] = temp;
+        }
+    }
+
+    public static void insertSort(Integer[] target, int left, int right) {
+        long comparisons = 0;//只在统计时有用，关闭统计时JIT会连同累加一起删掉
+        long moves = 0;
+        for (int i = left + 1; i <= right; i++) {
+            Integer temp = target[i];
+            int j;
+            for (j = i - 1; j >= left; j--) {
+                if (temp < target[j]) {
+                    target[j + 1] = target[j];
+                } else {
+                    break;
+                }
+            }
+            target[j + 1] = temp;
+            comparisons += i - j - (j < left ? 1 : 0);
+            moves += i - j;
+        }
+        if (SortMetrics.ENABLED) {
+            SortMetrics.comparisons(comparisons);
+            SortMetrics.moves(moves);
+        }
+    }
+
+}
@@ -1,6 +1,6 @@
 package com.bj.zzq.sort;
 
-public abstract class Sort {
+public abstract class Sort extends AbstractParallelSort {
     public abstract void setTarget(Integer[] target);
 
     public abstract void sort();
@@ -0,0 +1,65 @@
+package com.bj.zzq.sort;
+
+import java.util.function.Supplier;
+
+/**
+ * 所有Sort实现的登记表，algorithmId对应algorithm表的主键，压测和SortTest都从这里取算法。
+ * 20、21是堆外排序，登记在OffHeapSortAlgorithm，新加算法不要用这两个id
+ */
+public enum SortAlgorithm {
+    MERGE_SORT(1, "正常归并排序", Integer.MAX_VALUE, MergeSort::new),
+    INSERT_SORT(2, "正常插入排序", 100000, InsertSort::new),
+    SHELL_SORT(3, "正常希尔排序,增量为h=3h+1", Integer.MAX_VALUE, ShellSort::new),
+    QUICK_SORT_SMALL3_HAND(4, "快排,n<=3时，对于小划分使用手动排序", Integer.MAX_VALUE, QuickSortWithSmall3Hand::new),
+    QUICK_SORT_SMALL9_INSERT(5, "快排,n<=9时，对于小划分使用插入排序", Integer.MAX_VALUE, true, QuickSortWithSmall9Insert::new),
+    QUICK_SORT_NO_SMALL3(6, "快排,n<=3时，对于小划分不处理，最后统一使用插入排序", Integer.MAX_VALUE, QuickSortWithNoSmall3::new),
+    QUICK_SORT(7, "快排,n<=9时，对于小划分不处理，最后统一使用插入排序", Integer.MAX_VALUE, QuickSort::new),
+    QUICK_SORT_SIMPLE(10, "普通快排，枢纽为最右边数字", 100000, QuickSortSimple::new),//有序、逆序、山形数据上是O(n^2)
+    CARDINAL_SORT(11, "基数排序，LSD按二进制8位一趟计数分配，跳过所有数相同的位，支持负数", Integer.MAX_VALUE, CardinalSort::new),
+    PARALLEL_MERGE_SORT(12, "并行归并排序，源数组和中间数组交替使用，大的合并二分切分后并行", Integer.MAX_VALUE, true, ParallelMergeSort::new),
+    HEAP_SORT(13, "堆排序，原地、最坏O(nlogn)，也是快排的introsort兜底", Integer.MAX_VALUE, HeapSort::new),
+    DUAL_PIVOT_QUICK_SORT(14, "双枢纽快排，5个等距样本取第2、4个为枢纽，n<=9时使用插入排序", Integer.MAX_VALUE, DualPivotQuickSort::new),
+    THREE_WAY_QUICK_SORT(15, "三路划分快排(Bentley-McIlroy)，等于枢纽的数聚到中间不再递归，n<=9时使用插入排序", Integer.MAX_VALUE, ThreeWayQuickSort::new),
+    ADAPTIVE_MERGE_SORT(16, "自适应归并排序(Timsort)，识别天然run，二分插入补足最短run，galloping合并，稳定", Integer.MAX_VALUE, AdaptiveMergeSort::new),
+    SHELL_SORT_AUTO_GAP(17, "希尔排序，按规模自动选增量序列(小规模Ciura，大规模Sedgewick)，每趟交错h排序", Integer.MAX_VALUE, () -> new ShellSort(GapSequence.AUTO)),
+    SORT_PLANNER(18, "按抽样自动选择：插入排序、基数排序、三路快排或自适应归并", Integer.MAX_VALUE, SortPlanner::new),
+    IN_PLACE_MERGE_SORT(19, "原地稳定归并排序，只用√n大小的缓冲区，放不下时二分切分加旋转合并", Integer.MAX_VALUE, InPlaceMergeSort::new);
+
+    private final int algorithmId;
+    private final String mark;
+    private final int maxSize;//超过这个规模耗时不可接受(平方级算法)，压测时不跑
+    private final boolean parallel;//setParallelism是否生效，压测时只有这些算法按多个并行度跑
+    private final Supplier<Sort> factory;
+
+    SortAlgorithm(int algorithmId, String mark, int maxSize, Supplier<Sort> factory) {
+        this(algorithmId, mark, maxSize, false, factory);
+    }
+
+    SortAlgorithm(int algorithmId, String mark, int maxSize, boolean parallel, Supplier<Sort> factory) {
+        this.algorithmId = algorithmId;
+        this.mark = mark;
+        this.maxSize = maxSize;
+        this.parallel = parallel;
+        this.factory = factory;
+    }
+
+    public int getAlgorithmId() {
+        return algorithmId;
+    }
+
+    public String getMark() {
+        return mark;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public Sort create() {
+        return factory.get();
+    }
+}
@@ -0,0 +1,102 @@
+package com.bj.zzq.sort;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 排序过程的计数，用来解释为什么一个算法比另一个快。-Dsort.metrics=true时才开启：
+ * ENABLED是static final，所有埋点都写成if (SortMetrics.ENABLED) {...}，关闭时JIT把整段当作死代码删掉，没有任何开销。
+ * 埋点尽量按段累加(一次划分、一次合并结束时按指针走过的距离算出次数)，不在每次比较时调用。
+ * 计数是全局的(LongAdder，并行排序的多个线程可以同时累加)，同一时间只应有一个排序在统计：reset，排序，snapshot。
+ * 统计的是Sort(Integer[])的各个实现以及它们用到的SmallSort、HeapSort，原生数组版本不埋点
+ */
+public final class SortMetrics {
+    public static final boolean ENABLED = Boolean.getBoolean("sort.metrics");
+    //Integer[]的中间数组按每个引用4字节估算(压缩指针，堆小于32G时的默认情况)，int[]也是4字节
+    public static final int REFERENCE_BYTES = 4;
+
+    private static final LongAdder COMPARISONS = new LongAdder();
+    private static final LongAdder MOVES = new LongAdder();
+    private static final LongAdder PASSES = new LongAdder();
+    private static final LongAdder SCRATCH_BYTES = new LongAdder();
+    private static final LongAccumulator MAX_DEPTH = new LongAccumulator(Math::max, 0);
+
+    private final long comparisons;//元素之间(包括和枢纽)的比较次数
+    private final long moves;//元素写入次数，包括写到中间数组；交换算2次
+    private final long maxDepth;//最大递归深度：快排是划分的层数，归并是待合并run的栈高
+    private final long passes;//整段扫描的次数：一次划分、一次合并、基数排序的一趟分配、希尔排序的一个h
+    private final long scratchBytes;//排序时新分配的中间数组字节数，复用已有数组时不计
+
+    private SortMetrics(long comparisons, long moves, long maxDepth, long passes, long scratchBytes) {
+        this.comparisons = comparisons;
+        this.moves = moves;
+        this.maxDepth = maxDepth;
+        this.passes = passes;
+        this.scratchBytes = scratchBytes;
+    }
+
+    public static void comparisons(long n) {
+        COMPARISONS.add(n);
+    }
+
+    public static void moves(long n) {
+        MOVES.add(n);
+    }
+
+    public static void depth(long depth) {
+        MAX_DEPTH.accumulate(depth);
+    }
+
+    public static void pass() {
+        PASSES.increment();
+    }
+
+    public static void scratch(long bytes) {
+        SCRATCH_BYTES.add(bytes);
+    }
+
+    public static void reset() {
+        COMPARISONS.reset();
+        MOVES.reset();
+        PASSES.reset();
+        SCRATCH_BYTES.reset();
+        MAX_DEPTH.reset();
+    }
+
+    /**
+     * @return 上次reset以来的计数；没有开启时返回null
+     */
+    public static SortMetrics snapshot() {
+        if (!ENABLED) {
+            return null;
+        }
+        return new SortMetrics(COMPARISONS.sum(), MOVES.sum(), MAX_DEPTH.get(), PASSES.sum(), SCRATCH_BYTES.sum());
+    }
+
+    public long getComparisons() {
+        return comparisons;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public long getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getPasses() {
+        return passes;
+    }
+
+    public long getScratchBytes() {
+        return scratchBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "comparisons=" + comparisons + ",moves=" + moves + ",maxDepth=" + maxDepth + ",passes=" + passes
+                + ",scratchBytes=" + scratchBytes;
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.bj.zzq.sort;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 按输入自动选排序算法。排序前花O(1)的时间抽样：
+ * 1.等距取几个小窗口，数相邻逆序的比例，估计天然有序段(run)的平均长度；
+ * 2.等距取最多SAMPLE_SIZE个数排好序，估计不同值的个数和值域(基数排序要走几趟)。
+ * 然后在插入排序、基数排序、三路快排、自适应归并之间选一个，阈值来自各算法在不同分布下的实测：
+ * n<=32插入排序最快；局部有序(平均run>=32)时自适应归并比其他算法快几倍到十几倍；
+ * n<256时三路快排最快；更大时基数排序每趟的代价和快排每层差不多，趟数少于log2(不同值个数)就用基数排序，否则三路快排。
+ * 抽样只是估计，选错了也只是常数上的差别：候选算法最坏都不超过O(nlogn)。选择结果和原因写到日志(java.util.logging)：和上一次选的算法不同时INFO，相同时FINE
+ */
+public class SortPlanner extends Sort {
+    private static final Logger LOGGER = Logger.getLogger(SortPlanner.class.getName());
+    static final int INSERT_MAX_SIZE = 32;
+    static final int RADIX_MIN_SIZE = 256;
+    private static final int SAMPLE_SIZE = 1024;
+    private static final int WINDOWS = 16;//检查有序性的窗口个数
+    private static final int WINDOW_SIZE = 33;//每个窗口32次相邻比较
+    private static final int MIN_AVERAGE_RUN = 32;
+
+    private Integer[] target;
+    private final Map<SortAlgorithm, Sort> delegates = new EnumMap<>(SortAlgorithm.class);
+    private SortAlgorithm lastAlgorithm;
+    private String lastReason;
+
+    @Override
+    public void setTarget(Integer[] target) {
+        this.target = target;
+    }
+
+    @Override
+    public void sort() {
+        SortAlgorithm algorithm = plan();
+        Sort sort = delegates.get(algorithm);
+        if (sort == null) {
+            //每种算法只建一次，中间数组等可以在多次排序之间复用
+            sort = algorithm.create();
+            delegates.put(algorithm, sort);
+        }
+        if (parallelism > 1) {
+            sort.setPool(getPool());
+        } else {
+            //不再引用之前共享过去的pool，它可能已经随setParallelism关闭
+            sort.setParallelism(1);
+        }
+        sort.setTarget(target);
+        sort.sort();
+    }
+
+    /**
+     * 只抽样、不排序
+     *
+     * @return 对当前target选中的算法，原因见getLastReason
+     */
+    public SortAlgorithm plan() {
+        int n = target.length;
+        if (n <= INSERT_MAX_SIZE) {
+            return choose(SortAlgorithm.INSERT_SORT, "n=" + n + "<=" + INSERT_MAX_SIZE);
+        }
+        //窗口里相邻的升序、降序对数，相等的两边都算；窗口内占少数的方向每出现一次就断开一个run，
+        //按窗口分别取多数方向，先升后降(如山形)的数据也能认出来
+        int windows = Math.max(1, Math.min(WINDOWS, n / WINDOW_SIZE));
+        int windowSize = Math.min(WINDOW_SIZE, n);
+        int comparisons = 0;
+        int breaks = 0;
+        for (int w = 0; w < windows; w++) {
+            int start = (int) ((long) (n - windowSize) * w / Math.max(1, windows - 1));
+            int ascending = 0;
+            int descending = 0;
+            for (int i = start + 1; i < start + windowSize; i++) {
+                int compare = Integer.compare(target[i - 1], target[i]);
+                if (compare <= 0) {
+                    ascending++;
+                }
+                if (compare >= 0) {
+                    descending++;
+                }
+            }
+            comparisons += windowSize - 1;
+            breaks += windowSize - 1 - Math.max(ascending, descending);
+        }
+        double averageRun = (double) comparisons / (breaks + 1);
+        String runs = "平均run约" + (int) averageRun;
+        if (averageRun >= MIN_AVERAGE_RUN) {
+            return choose(SortAlgorithm.ADAPTIVE_MERGE_SORT, "n=" + n + "，" + runs + ">=" + MIN_AVERAGE_RUN + "，局部基本有序");
+        }
+        if (n < RADIX_MIN_SIZE) {
+            return choose(SortAlgorithm.THREE_WAY_QUICK_SORT, "n=" + n + "<" + RADIX_MIN_SIZE + "，" + runs);
+        }
+        int m = Math.min(n, SAMPLE_SIZE);
+        int[] sample = new int[m];
+        for (int i = 0; i < m; i++) {
+            sample[i] = target[(int) ((long) n * i / m)];
+        }
+        IntDualPivotQuickSort sampleSort = new IntDualPivotQuickSort();
+        sampleSort.setTarget(sample);
+        sampleSort.sort();
+        int distinct = 1;
+        for (int i = 1; i < m; i++) {
+            if (sample[i] != sample[i - 1]) {
+                distinct++;
+            }
+        }
+        //样本里不同值不到一半时，认为整体也就这么多；否则按几乎全不相同估计
+        long distinctEstimate = distinct * 2 < m ? distinct : n;
+        //最高的不同位决定基数排序8位一趟要走几趟，更高的位全部相同会被跳过
+        int differentBits = 32 - Integer.numberOfLeadingZeros(sample[0] ^ sample[m - 1]);
+        int radixPasses = Math.max(1, (differentBits + 7) / 8);
+        double quickLevels = Math.log(distinctEstimate + 1) / Math.log(2);
+        String stats = "n=" + n + "，" + runs + "，不同值约" + distinctEstimate + "(样本" + distinct + "/" + m + ")，值域["
+                + sample[0] + ", " + sample[m - 1] + "]";
+        if (radixPasses < quickLevels) {
+            return choose(SortAlgorithm.CARDINAL_SORT, stats + "，基数排序" + radixPasses + "趟<三路快排约"
+                    + (int) Math.ceil(quickLevels) + "层");
+        }
+        return choose(SortAlgorithm.THREE_WAY_QUICK_SORT, stats + "，不同值很少，三路快排约" + (int) Math.ceil(quickLevels)
+                + "层<=基数排序" + radixPasses + "趟");
+    }
+
+    public SortAlgorithm getLastAlgorithm() {
+        return lastAlgorithm;
+    }
+
+    public String getLastReason() {
+        return lastReason;
+    }
+
+    private SortAlgorithm choose(SortAlgorithm algorithm, String reason) {
+        //sort()在压测的计时区间里，每次都写INFO会把日志I/O算进排序时间；只有换了算法才写INFO，其余是FINE
+        Level level = algorithm != lastAlgorithm ? Level.INFO : Level.FINE;
+        lastAlgorithm = algorithm;
+        lastReason = reason;
+        if (LOGGER.isLoggable(level)) {
+            LOGGER.log(level, "选择" + algorithm + "：" + reason);
+        }
+        return algorithm;
+    }
+
+}
@@ -1,14 +1,36 @@
 package com.bj.zzq.sort;
 
 
-import java.sql.*;
-import java.util.Date;
-import java.util.Random;
+import com.bj.zzq.sort.data.DatasetCache;
+import com.bj.zzq.sort.data.DatasetFile;
+import com.bj.zzq.sort.data.DatasetGenerator;
+import com.bj.zzq.sort.data.Distribution;
+import com.bj.zzq.sort.offheap.OffHeapIntArray;
+import com.bj.zzq.sort.offheap.OffHeapIntSort;
+import com.bj.zzq.sort.offheap.OffHeapSortAlgorithm;
+import com.bj.zzq.sort.result.ResultSink;
+import com.bj.zzq.sort.result.ResultSinks;
+import com.bj.zzq.sort.result.SortResult;
+
+import java.io.File;
+import java.io.IOException;
 
 public class SortTest {
-    private static Connection conn;
+    private static final long SEED = 20190408L;
+    //结果异步批量写出，写库还是写本地文件见ResultSinks
+    private static ResultSink sink;
+
+    public static void main(String[] args) throws IOException {
+        sink = ResultSinks.fromSystemProperties();
+        //出异常时也要把已经攒下的结果写出去
+        try {
+            sortAll();
+        } finally {
+            sink.close();
+        }
+    }
 
-    public static void main(String[] args) {
+    private static void sortAll() throws IOException {
         long startAll = System.nanoTime();
         InsertSort insertSort = new InsertSort();
         MergeSort mergeSort = new MergeSort();
@@ -16,24 +38,25 @@ public class SortTest {
         QuickSort quickSort = new QuickSort();
         QuickSortSimple quickSortSimple = new QuickSortSimple();
         CardinalSort cardinalSort = new CardinalSort();
-        cardinalSort.setCardinalNum(10);
+        cardinalSort.setRadixBits(8);
         QuickSortWithNoSmall3 quickSortWithNoSmall3 = new QuickSortWithNoSmall3();
         QuickSortWithSmall3Hand quickSortWithSmall3Hand = new QuickSortWithSmall3Hand();
         QuickSortWithSmall9Insert quickSortWithSmall9Insert = new QuickSortWithSmall9Insert();
+        OffHeapIntSort offHeapQuickSort = OffHeapSortAlgorithm.QUICK_SORT.create();
+        OffHeapIntSort offHeapCardinalSort = OffHeapSortAlgorithm.CARDINAL_SORT.create();
 
-        Random random = new Random();
+        //数据按种子缓存到-Dsort.data.dir(默认sort-data)目录，第二次运行直接映射文件
+        File dataDir = new File(System.getProperty("sort.data.dir", "sort-data"));
         for (int i = 100000000; i < 1000000000; i = i * 10) {
             for (int k = 0; k < 2; k++) {
-                Integer[] origin = new Integer[i];
+                DatasetCache cache = new DatasetCache(dataDir, new DatasetGenerator(SEED + k));
                 long createDataStart = System.nanoTime();
-                for (int j = 0; j < i; j++) {
-                    origin[j] = random.nextInt(Integer.MAX_VALUE);
-                }
+                Integer[] origin = cache.loadBoxed(Distribution.UNIFORM, i);
                 long createDataEnd = System.nanoTime();
                 System.out.println("造" + i + "个数据共花费" + (createDataEnd - createDataStart) + "纳秒");
 
                 doSomething(quickSortSimple, 10, origin);
-//                doSomething(cardinalSort, 8, origin);
+//                doSomething(cardinalSort, 11, origin);
 //                doSomething(insertSort, 2, origin);
 //                doSomething(shellSort, 3, origin);
 //                doSomething(mergeSort, 1, origin);
@@ -41,49 +64,35 @@ public class SortTest {
 //                doSomething(quickSortWithNoSmall3, 6, origin);
 //                doSomething(quickSortWithSmall3Hand, 4, origin);
 //                doSomething(quickSortWithSmall9Insert, 5, origin);
+                //堆外排序直接从数据集文件拷贝，不经过Integer[]，用的时候把上面的loadBoxed也注释掉，堆可以开得很小
+//                doOffHeap(offHeapQuickSort, OffHeapSortAlgorithm.QUICK_SORT.getAlgorithmId(), cache.open(Distribution.UNIFORM, i));
+//                doOffHeap(offHeapCardinalSort, OffHeapSortAlgorithm.CARDINAL_SORT.getAlgorithmId(), cache.open(Distribution.UNIFORM, i));
             }
         }
 
         long endAll = System.nanoTime();
         System.out.println("共花费" + (endAll - startAll) + "纳秒");
-
     }
 
     private static void doSomething(Sort sort, int algorithmType, Integer[] origin) {
-        try {
-            sort.setTarget(origin);
-            long start = System.nanoTime();
-            sort.sort();
-            long end = System.nanoTime();
-            long cost = end - start;
-            Connection conn = getConnection();
-            String sql = "insert into sort_example(data_count,algorithm_id,cost,create_time) values(?,?,?,?)";
-            PreparedStatement prepareStatement = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-            prepareStatement.setInt(1, origin.length);
-            prepareStatement.setInt(2, algorithmType);
-            prepareStatement.setString(3, cost + "");
-            prepareStatement.setTimestamp(4, new Timestamp(new Date().getTime()));
-            prepareStatement.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
+        sort.setTarget(origin);
+        if (SortMetrics.ENABLED) {
+            //开启计数时耗时会偏大，计数和耗时最好分开跑
+            SortMetrics.reset();
         }
+        long start = System.nanoTime();
+        sort.sort();
+        long end = System.nanoTime();
+        sink.add(new SortResult(origin.length, algorithmType, end - start, SortMetrics.snapshot()));
     }
 
-    private static Connection getConnection() {
-        if (conn == null) {
-            try {
-                Class.forName("com.mysql.jdbc.Driver");
-                String url = "jdbc:mysql://localhost:3306/test?characterEncoding=utf8&useSSL=false&serverTimezone=GMT%2B8";
-                String username = "root";
-                String password = "admin";
-                conn = DriverManager.getConnection(url, username, password);
-            } catch (ClassNotFoundException e) {
-                e.printStackTrace();
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
-        }
-        return conn;
+    private static void doOffHeap(OffHeapIntSort sort, int algorithmType, DatasetFile file) {
+        OffHeapIntArray array = OffHeapIntArray.copyOf(file);
+        sort.setTarget(array);
+        long start = System.nanoTime();
+        sort.sort();
+        long end = System.nanoTime();
+        sink.add(new SortResult(array.length(), algorithmType, end - start));
     }
 
     public static Integer[] copyArray(Integer[] array) {
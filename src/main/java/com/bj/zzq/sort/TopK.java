@@ -0,0 +1,188 @@
+package com.bj.zzq.sort;
+
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
+/**
+ * 部分排序，取最小/最大的k个数并排好序。
+ * 数组模式：先用Selection把前k小(或前k大)的数聚到一边，只对这k个数排序，O(n + klogk)，会打乱原数组的顺序；
+ * 流模式：只保留一个大小为k的基本类型堆，数据逐个流过，内存O(k)，适合不能整体放进内存或没有尽头的数据
+ */
+public final class TopK {
+
+    private TopK() {
+    }
+
+    /**
+     * @return 最小的k个数，从小到大。target被重排：前k个就是结果
+     */
+    public static int[] smallest(int[] target, int k) {
+        k = checkK(k, target.length);
+        if (k == 0) {
+            return new int[0];
+        }
+        Selection.select(target, 0, target.length - 1, k - 1);
+        sortRange(target, 0, k);
+        int[] result = new int[k];
+        System.arraycopy(target, 0, result, 0, k);
+        return result;
+    }
+
+    /**
+     * @return 最大的k个数，从大到小。target被重排：最后k个从小到大就是结果
+     */
+    public static int[] largest(int[] target, int k) {
+        k = checkK(k, target.length);
+        if (k == 0) {
+            return new int[0];
+        }
+        int from = target.length - k;
+        Selection.select(target, 0, target.length - 1, from);
+        sortRange(target, from, k);
+        int[] result = new int[k];
+        for (int i = 0; i < k; i++) {
+            result[i] = target[target.length - 1 - i];
+        }
+        return result;
+    }
+
+    /**
+     * 把第k小的数放到位，它左边就是更小的k-1个数
+     *
+     * @return 最小的k个数，从小到大
+     */
+    public static Integer[] smallest(Integer[] target, int k) {
+        k = checkK(k, target.length);
+        if (k == 0) {
+            return new Integer[0];
+        }
+        Selection.select(target, 0, target.length - 1, k - 1);
+        HeapSort.heapSort(target, 0, k - 1);
+        Integer[] result = new Integer[k];
+        System.arraycopy(target, 0, result, 0, k);
+        return result;
+    }
+
+    /**
+     * @return 最大的k个数，从大到小
+     */
+    public static Integer[] largest(Integer[] target, int k) {
+        k = checkK(k, target.length);
+        if (k == 0) {
+            return new Integer[0];
+        }
+        Selection.select(target, 0, target.length - 1, target.length - k);
+        HeapSort.heapSort(target, target.length - k, target.length - 1);
+        Integer[] result = new Integer[k];
+        for (int i = 0; i < k; i++) {
+            result[i] = target[target.length - 1 - i];
+        }
+        return result;
+    }
+
+    /**
+     * 流模式，保留一个k个数的小顶堆，堆顶是目前第k大的数，新数比堆顶大才替换
+     *
+     * @return 最大的k个数，从大到小；流里不足k个数时返回全部
+     */
+    public static int[] largest(PrimitiveIterator.OfInt values, int k) {
+        return largest(values, k, false);
+    }
+
+    public static int[] largest(IntStream values, int k) {
+        return largest(values.iterator(), k, false);
+    }
+
+    /**
+     * 按位取反是反序的一一映射(没有取负数时MIN_VALUE溢出的问题)，最小的k个就是取反后最大的k个
+     *
+     * @return 最小的k个数，从小到大
+     */
+    public static int[] smallest(PrimitiveIterator.OfInt values, int k) {
+        return largest(values, k, true);
+    }
+
+    public static int[] smallest(IntStream values, int k) {
+        return largest(values.iterator(), k, true);
+    }
+
+    private static int[] largest(PrimitiveIterator.OfInt values, int k, boolean invert) {
+        k = checkK(k, Integer.MAX_VALUE);
+        int[] heap = new int[Math.min(k, 1024)];
+        int size = 0;
+        while (values.hasNext()) {
+            int value = values.nextInt();
+            if (invert) {
+                value = ~value;
+            }
+            if (size < k) {
+                if (size == heap.length) {
+                    int[] grown = new int[(int) Math.min((long) k, 2L * size)];
+                    System.arraycopy(heap, 0, grown, 0, size);
+                    heap = grown;
+                }
+                heap[size] = value;
+                siftUp(heap, size++);
+            } else if (k > 0 && value > heap[0]) {
+                heap[0] = value;
+                siftDown(heap, 0, size);
+            }
+        }
+        //依次把堆顶(最小的)换到末尾，得到从大到小的顺序
+        for (int end = size - 1; end > 0; end--) {
+            int temp = heap[0];
+            heap[0] = heap[end];
+            heap[end] = temp;
+            siftDown(heap, 0, end);
+        }
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = invert ? ~heap[i] : heap[i];
+        }
+        return result;
+    }
+
+    private static void siftUp(int[] heap, int index) {
+        int value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private static void siftDown(int[] heap, int index, int size) {
+        int value = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (value <= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+
+    private static void sortRange(int[] target, int offset, int length) {
+        IntDualPivotQuickSort sort = new IntDualPivotQuickSort();
+        sort.setTarget(target, offset, length);
+        sort.sort();
+    }
+
+    private static int checkK(int k, int size) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k=" + k);
+        }
+        return Math.min(k, size);
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.bj.zzq.sort.data;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 数据集缓存。按分布、规模、种子命名文件，第一次生成后写到目录中，之后直接映射文件读取，不再重新生成
+ */
+public class DatasetCache {
+    private final File dir;
+    private final DatasetGenerator generator;
+
+    public DatasetCache(File dir, DatasetGenerator generator) {
+        this.dir = dir;
+        this.generator = generator;
+    }
+
+    public int[] load(Distribution distribution, int size) throws IOException {
+        File file = fileOf(distribution, size);
+        if (file.exists()) {
+            try {
+                return DatasetFile.read(file);
+            } catch (IOException e) {
+                //上次没有写完，重新生成
+            }
+        }
+        int[] data = generator.generate(distribution, size);
+        ensureDir();
+        DatasetFile.write(file, data, 0, data.length);
+        return data;
+    }
+
+    public Integer[] loadBoxed(Distribution distribution, int size) throws IOException {
+        int[] data = load(distribution, size);
+        Integer[] boxed = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            boxed[i] = data[i];
+        }
+        return boxed;
+    }
+
+    /**
+     * 放不进内存的数据集只映射文件，不读进数组
+     */
+    public DatasetFile open(Distribution distribution, long size) throws IOException {
+        File file = fileOf(distribution, size);
+        if (file.exists()) {
+            try {
+                return DatasetFile.open(file);
+            } catch (IOException e) {
+                //上次没有写完，重新生成
+            }
+        }
+        ensureDir();
+        generator.generateToFile(distribution, size, file);
+        return DatasetFile.open(file);
+    }
+
+    public File fileOf(Distribution distribution, long size) {
+        return new File(dir, distribution.name().toLowerCase() + "-" + size + "-" + generator.getSeed() + ".bin");
+    }
+
+    private void ensureDir() throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("无法创建目录" + dir);
+        }
+    }
+}
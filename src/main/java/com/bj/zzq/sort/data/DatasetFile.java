@@ -0,0 +1,147 @@
+package com.bj.zzq.sort.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 数据集的二进制文件：16字节头(大端的魔数、字节序标记、元素个数)，后面是按本机字节序连续存放的int。
+ * 读写都通过内存映射，打开文件不拷贝数据；超过2G的文件按段映射，每段最多SEGMENT_INTS个int。
+ * 魔数在数据全部刷盘之后才写入，写到一半的文件打不开
+ */
+public class DatasetFile {
+    public static final int HEADER_BYTES = 16;
+    public static final int SEGMENT_INTS = 1 << 28;//每段1G字节
+    private static final int MAGIC = 0x53525444;//"SRTD"
+
+    private final MappedByteBuffer header;//只有新建的文件才有，用来在最后写入魔数
+    private final MappedByteBuffer[] buffers;
+    private final IntBuffer[] segments;
+    private final long count;
+
+    private DatasetFile(MappedByteBuffer header, MappedByteBuffer[] buffers, long count) {
+        this.header = header;
+        this.buffers = buffers;
+        this.count = count;
+        this.segments = new IntBuffer[buffers.length];
+        for (int i = 0; i < buffers.length; i++) {
+            segments[i] = buffers[i].asIntBuffer();
+        }
+    }
+
+    /**
+     * 创建文件，数据由调用方通过put或segment填充，最后调用force
+     */
+    public static DatasetFile create(File file, long count) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+             FileChannel channel = raf.getChannel()) {
+            raf.setLength(HEADER_BYTES + count * 4);
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            header.putInt(0, 0);
+            header.putInt(4, ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? 1 : 0);
+            header.putLong(8, count);
+            return new DatasetFile(header, map(channel, FileChannel.MapMode.READ_WRITE, ByteOrder.nativeOrder(), count), count);
+        }
+    }
+
+    /**
+     * 只读映射已有的文件
+     */
+    public static DatasetFile open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException(file + "不是数据集文件");
+            }
+            ByteOrder order = header.getInt() == 1 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+            long count = header.getLong();
+            if (channel.size() < HEADER_BYTES + count * 4) {
+                throw new IOException(file + "长度不完整");
+            }
+            return new DatasetFile(null, map(channel, FileChannel.MapMode.READ_ONLY, order, count), count);
+        }
+    }
+
+    public static void write(File file, int[] data, int offset, int length) throws IOException {
+        DatasetFile dataset = create(file, length);
+        for (int i = 0; i < dataset.segmentCount(); i++) {
+            IntBuffer segment = dataset.segment(i);
+            int n = segment.remaining();
+            segment.put(data, offset, n);
+            offset += n;
+        }
+        dataset.force();
+    }
+
+    public static int[] read(File file) throws IOException {
+        DatasetFile dataset = open(file);
+        if (dataset.count() > Integer.MAX_VALUE - 8) {
+            throw new IOException(file + "有" + dataset.count() + "个数据，超过了数组的上限");
+        }
+        int[] data = new int[(int) dataset.count()];
+        int offset = 0;
+        for (int i = 0; i < dataset.segmentCount(); i++) {
+            IntBuffer segment = dataset.segment(i);
+            int n = segment.remaining();
+            segment.get(data, offset, n);
+            offset += n;
+        }
+        return data;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public int segmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * 第i段的视图，position从0开始，各次调用互不影响
+     */
+    public IntBuffer segment(int i) {
+        return segments[i].duplicate();
+    }
+
+    public int get(long index) {
+        return segments[(int) (index / SEGMENT_INTS)].get((int) (index % SEGMENT_INTS));
+    }
+
+    public void put(long index, int value) {
+        segments[(int) (index / SEGMENT_INTS)].put((int) (index % SEGMENT_INTS), value);
+    }
+
+    /**
+     * 把数据刷到磁盘，新建的文件随后写入魔数
+     */
+    public void force() {
+        for (MappedByteBuffer buffer : buffers) {
+            buffer.force();
+        }
+        if (header != null) {
+            header.putInt(0, MAGIC);
+            header.force();
+        }
+    }
+
+    private static MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode, ByteOrder order, long count) throws IOException {
+        int segmentCount = (int) ((count + SEGMENT_INTS - 1) / SEGMENT_INTS);
+        MappedByteBuffer[] buffers = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long first = (long) i * SEGMENT_INTS;
+            int n = (int) Math.min(SEGMENT_INTS, count - first);
+            buffers[i] = channel.map(mode, HEADER_BYTES + first * 4, (long) n * 4);
+            buffers[i].order(order);
+        }
+        return buffers;
+    }
+}
@@ -0,0 +1,126 @@
+package com.bj.zzq.sort.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * 排序测试数据生成器。数据按CHUNK个一块，每块用由种子和块号算出的独立SplittableRandom生成，
+ * 块之间没有依赖可以并行，而且同样的种子、分布、规模得到的数据和线程数无关
+ */
+public class DatasetGenerator {
+    private static final int CHUNK = 1 << 16;
+    private final long seed;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();//setParallelism之后是自己创建的pool
+
+    public DatasetGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setParallelism(int parallelism) {
+        if (pool.getParallelism() == parallelism && pool != ForkJoinPool.commonPool()) {
+            return;
+        }
+        shutdown();
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * 关闭setParallelism创建的pool，之后回到commonPool
+     */
+    public void shutdown() {
+        //commonPool不归这里管，shutdown对它也不起作用
+        if (pool != ForkJoinPool.commonPool()) {
+            pool.shutdown();
+            pool = ForkJoinPool.commonPool();
+        }
+    }
+
+    public int[] generate(Distribution distribution, int size) {
+        int[] data = new int[size];
+        fill(distribution, data, 0, size, 0, size);
+        return data;
+    }
+
+    public Integer[] generateBoxed(Distribution distribution, int size) {
+        int[] data = generate(distribution, size);
+        Integer[] boxed = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            boxed[i] = data[i];
+        }
+        return boxed;
+    }
+
+    /**
+     * 生成总规模为totalSize的数据集中下标从firstIndex开始的length个数，放到target[offset]开始的位置，
+     * 可以分批生成放不进内存的数据集
+     */
+    public void fill(final Distribution distribution, final int[] target, final int offset, final int length,
+                     final long firstIndex, final long totalSize) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>();
+        long index = firstIndex;
+        final long end = firstIndex + length;
+        while (index < end) {
+            final long from = index;
+            final long to = Math.min((from / CHUNK + 1) * CHUNK, end);
+            tasks.add(ForkJoinTask.adapt(new Runnable() {
+                public void run() {
+                    fillChunk(distribution, target, (int) (offset + from - firstIndex), from, to, totalSize);
+                }
+            }));
+            index = to;
+        }
+        pool.invoke(ForkJoinTask.adapt(new Runnable() {
+            public void run() {
+                ForkJoinTask.invokeAll(tasks);
+            }
+        }));
+    }
+
+    /**
+     * 直接生成到数据集文件，分批进行，内存里只有一个缓冲
+     */
+    public DatasetFile generateToFile(Distribution distribution, long size, File file) throws IOException {
+        DatasetFile dataset = DatasetFile.create(file, size);
+        int[] buffer = new int[(int) Math.min(size, 1 << 24)];
+        long index = 0;
+        for (int i = 0; i < dataset.segmentCount(); i++) {
+            IntBuffer segment = dataset.segment(i);
+            while (segment.hasRemaining()) {
+                int n = Math.min(buffer.length, segment.remaining());
+                fill(distribution, buffer, 0, n, index, size);
+                segment.put(buffer, 0, n);
+                index += n;
+            }
+        }
+        dataset.force();
+        return dataset;
+    }
+
+    //块内的下标不一定从块头开始，前面的部分要按同样的方式消耗随机数，保证和整块生成的结果一致
+    private void fillChunk(Distribution distribution, int[] target, int targetOffset, long from, long to, long totalSize) {
+        long chunkStart = from / CHUNK * CHUNK;
+        SplittableRandom random = new SplittableRandom(mix64(seed + (from / CHUNK) * 0x9E3779B97F4A7C15L));
+        for (long i = chunkStart; i < from; i++) {
+            distribution.next(i, totalSize, random);
+        }
+        for (long i = from; i < to; i++) {
+            target[targetOffset++] = distribution.next(i, totalSize, random);
+        }
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
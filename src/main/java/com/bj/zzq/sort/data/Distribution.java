@@ -0,0 +1,74 @@
+package com.bj.zzq.sort.data;
+
+import java.util.SplittableRandom;
+
+/**
+ * 测试数据的分布。每个分布只根据全局下标和传入的随机数生成器计算一个值，
+ * 这样按块并行生成时结果和线程数无关
+ */
+public enum Distribution {
+    /**
+     * [0, Integer.MAX_VALUE)均匀分布，和原来SortTest造的数据一致
+     */
+    UNIFORM {
+        @Override
+        int next(long index, long size, SplittableRandom random) {
+            return random.nextInt(Integer.MAX_VALUE);
+        }
+    },
+    SORTED {
+        @Override
+        int next(long index, long size, SplittableRandom random) {
+            return (int) index;
+        }
+    },
+    REVERSE {
+        @Override
+        int next(long index, long size, SplittableRandom random) {
+            return (int) (size - index);
+        }
+    },
+    /**
+     * 有序数据中约1%的数据在前后100的范围内扰动
+     */
+    NEARLY_SORTED {
+        @Override
+        int next(long index, long size, SplittableRandom random) {
+            if (random.nextInt(100) == 0) {
+                return (int) (index + random.nextInt(201) - 100);
+            }
+            return (int) index;
+        }
+    },
+    /**
+     * 只有16个不同的值，例如状态码
+     */
+    FEW_UNIQUE {
+        @Override
+        int next(long index, long size, SplittableRandom random) {
+            return random.nextInt(16);
+        }
+    },
+    /**
+     * 先升后降
+     */
+    ORGAN_PIPE {
+        @Override
+        int next(long index, long size, SplittableRandom random) {
+            return (int) (index < size / 2 ? index : size - index);
+        }
+    },
+    /**
+     * 参数为1的Zipf分布，取值1..2^20，值越小出现得越多
+     */
+    ZIPF {
+        private final ZipfSampler sampler = new ZipfSampler(1 << 20, 1.0);
+
+        @Override
+        int next(long index, long size, SplittableRandom random) {
+            return sampler.sample(random);
+        }
+    };
+
+    abstract int next(long index, long size, SplittableRandom random);
+}
@@ -0,0 +1,270 @@
+package com.bj.zzq.sort.external;
+
+import com.bj.zzq.sort.IntCardinalSort;
+import com.bj.zzq.sort.IntSort;
+import com.bj.zzq.sort.data.DatasetFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 外部排序，数据比堆大时使用。输入输出都是DatasetFile格式的文件：
+ * 1.按内存预算一块一块读进数组，用内存排序算法排好，写成临时的有序段；
+ * 2.用败者树做k路归并，段数超过归并路数时先分组归并成更长的段，直到一趟可以归并完，最后一趟直接写到输出文件。
+ * 排序结束后可以取到读写的总字节数，用来估算IO开销
+ */
+public class ExternalSort {
+    private long memoryBudget = 256L << 20;//字节，一半给内存排序的数组，另一半留给排序算法的中间数组
+    private int fanIn = 64;//一趟最多归并几个有序段
+    private File tempDir = new File(System.getProperty("java.io.tmpdir"));
+    private IntSort engine = new IntCardinalSort();
+
+    private long bytesRead;
+    private long bytesWritten;
+    private int runCount;//第一阶段生成的有序段个数
+    private int mergePasses;
+
+    public void setMemoryBudget(long memoryBudget) {
+        if (memoryBudget < (1 << 16)) {
+            throw new IllegalArgumentException("memoryBudget=" + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+    }
+
+    public void setFanIn(int fanIn) {
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("fanIn=" + fanIn);
+        }
+        this.fanIn = fanIn;
+    }
+
+    public void setTempDir(File tempDir) {
+        this.tempDir = tempDir;
+    }
+
+    /**
+     * 对每一块使用的内存排序算法，默认基数排序
+     */
+    public void setEngine(IntSort engine) {
+        this.engine = engine;
+    }
+
+    public void sort(File input, File output) throws IOException {
+        bytesRead = 0;
+        bytesWritten = 0;
+        mergePasses = 0;
+        DatasetFile source = DatasetFile.open(input);
+        List<RunFile> runs = createRuns(source);
+        runCount = runs.size();
+        try {
+            while (runs.size() > fanIn) {
+                List<RunFile> next = new ArrayList<RunFile>();
+                boolean passDone = false;
+                try {
+                    for (int i = 0; i < runs.size(); i += fanIn) {
+                        List<RunFile> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+                        RunFile.Writer writer = newRunWriter(ioBufferBytes(group.size()));
+                        boolean written = false;
+                        try {
+                            merge(group, new IntSink(writer));
+                            next.add(writer.close());
+                            written = true;
+                        } finally {
+                            if (!written) {
+                                writer.abort();
+                            }
+                        }
+                        bytesWritten += writer.getBytesWritten();
+                        deleteAll(group);
+                    }
+                    passDone = true;
+                } finally {
+                    //这一趟没做完时，已经写出来的新段也要删掉；上一趟剩下的段由外层的finally删
+                    if (!passDone) {
+                        deleteAll(next);
+                    }
+                }
+                runs = next;
+                mergePasses++;
+            }
+            DatasetFile target = DatasetFile.create(output, source.count());
+            IntSink sink = new IntSink(target);
+            merge(runs, sink);
+            sink.flush();
+            target.force();
+            bytesWritten += DatasetFile.HEADER_BYTES + source.count() * 4;
+            mergePasses++;
+        } finally {
+            deleteAll(runs);
+        }
+    }
+
+    private List<RunFile> createRuns(DatasetFile source) throws IOException {
+        long count = source.count();
+        int chunk = (int) Math.min(Math.max(memoryBudget / 8, 1), Math.min(count, Integer.MAX_VALUE - 8));
+        int[] buffer = new int[Math.max(chunk, 1)];
+        List<RunFile> runs = new ArrayList<RunFile>();
+        boolean done = false;
+        try {
+            long index = 0;
+            while (index < count) {
+                int n = (int) Math.min(chunk, count - index);
+                read(source, index, buffer, n);
+                bytesRead += (long) n * 4;
+                engine.setTarget(buffer, 0, n);
+                engine.sort();
+                RunFile.Writer writer = newRunWriter(1 << 20);
+                boolean written = false;
+                try {
+                    writer.write(buffer, 0, n);
+                    runs.add(writer.close());
+                    written = true;
+                } finally {
+                    if (!written) {
+                        writer.abort();
+                    }
+                }
+                bytesWritten += writer.getBytesWritten();
+                index += n;
+            }
+            done = true;
+        } finally {
+            //磁盘写满、输入文件损坏时，已经生成的段不能留在临时目录里
+            if (!done) {
+                deleteAll(runs);
+            }
+        }
+        return runs;
+    }
+
+    //新建一个临时段文件，打开失败时把刚建的空文件删掉
+    private RunFile.Writer newRunWriter(int bufferBytes) throws IOException {
+        File file = File.createTempFile("sort-run-", ".bin", tempDir);
+        try {
+            return RunFile.writer(file, bufferBytes);
+        } catch (IOException | RuntimeException e) {
+            file.delete();
+            throw e;
+        }
+    }
+
+    //从映射的输入文件中读出[index, index+n)，可能跨段
+    private static void read(DatasetFile source, long index, int[] buffer, int n) {
+        int offset = 0;
+        while (offset < n) {
+            int segmentIndex = (int) (index / DatasetFile.SEGMENT_INTS);
+            IntBuffer segment = source.segment(segmentIndex);
+            segment.position((int) (index % DatasetFile.SEGMENT_INTS));
+            int length = Math.min(n - offset, segment.remaining());
+            segment.get(buffer, offset, length);
+            offset += length;
+            index += length;
+        }
+    }
+
+    private void merge(List<RunFile> runs, IntSink sink) throws IOException {
+        int k = runs.size();
+        RunFile.Reader[] readers = new RunFile.Reader[k];
+        long[] keys = new long[k];
+        int bufferBytes = ioBufferBytes(k);
+        try {
+            for (int i = 0; i < k; i++) {
+                readers[i] = runs.get(i).reader(bufferBytes);
+                keys[i] = readers[i].hasNext() ? readers[i].next() : LoserTree.EXHAUSTED;
+            }
+            if (k == 0) {
+                return;
+            }
+            LoserTree tree = new LoserTree(keys);
+            while (tree.winnerKey() != LoserTree.EXHAUSTED) {
+                sink.put((int) tree.winnerKey());
+                RunFile.Reader reader = readers[tree.winner()];
+                tree.replaceWinner(reader.hasNext() ? reader.next() : LoserTree.EXHAUSTED);
+            }
+        } finally {
+            for (RunFile.Reader reader : readers) {
+                if (reader != null) {
+                    bytesRead += reader.getBytesRead();
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    //归并时内存预算平均分给每一路的读缓冲和一个写缓冲
+    private int ioBufferBytes(int ways) {
+        long bytes = memoryBudget / (ways + 1);
+        return (int) Math.max(1 << 12, Math.min(bytes, 1 << 26));
+    }
+
+    private static void deleteAll(List<RunFile> runs) {
+        for (RunFile run : runs) {
+            run.delete();
+        }
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public int getRunCount() {
+        return runCount;
+    }
+
+    public int getMergePasses() {
+        return mergePasses;
+    }
+
+    /**
+     * 归并结果的去向：中间的有序段文件，或者最终的输出文件(先攒到数组里再批量写入映射段)
+     */
+    private static class IntSink {
+        private final RunFile.Writer writer;
+        private final DatasetFile target;
+        private int[] buffer;
+        private int size;
+        private long index;
+
+        IntSink(RunFile.Writer writer) {
+            this.writer = writer;
+            this.target = null;
+        }
+
+        IntSink(DatasetFile target) {
+            this.writer = null;
+            this.target = target;
+            this.buffer = new int[1 << 16];
+        }
+
+        void put(int value) throws IOException {
+            if (writer != null) {
+                writer.write(value);
+                return;
+            }
+            if (size == buffer.length) {
+                flush();
+            }
+            buffer[size++] = value;
+        }
+
+        void flush() {
+            int offset = 0;
+            while (offset < size) {
+                IntBuffer segment = target.segment((int) (index / DatasetFile.SEGMENT_INTS));
+                segment.position((int) (index % DatasetFile.SEGMENT_INTS));
+                int n = Math.min(size - offset, segment.remaining());
+                segment.put(buffer, offset, n);
+                offset += n;
+                index += n;
+            }
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.bj.zzq.sort.external;
+
+/**
+ * 败者树，用于k路归并。每个内部结点记录比赛的败者，tree[0]是总冠军；
+ * 某一路的当前值更新后只要沿着到根的路径比较log(k)次，比堆少一半的比较
+ */
+class LoserTree {
+    static final long EXHAUSTED = Long.MAX_VALUE;//这一路已经读完
+
+    private final int k;
+    private final int[] tree;
+    private final long[] keys;//第k个位置是建树时用的最小值哨兵
+
+    LoserTree(long[] initialKeys) {
+        this.k = initialKeys.length;
+        this.tree = new int[Math.max(k, 1)];
+        this.keys = new long[k + 1];
+        System.arraycopy(initialKeys, 0, keys, 0, k);
+        keys[k] = Long.MIN_VALUE;
+        //先让所有结点都指向哨兵，依次调整每一路之后哨兵会被全部换出去
+        for (int i = 0; i < tree.length; i++) {
+            tree[i] = k;
+        }
+        for (int i = k - 1; i >= 0; i--) {
+            adjust(i);
+        }
+    }
+
+    /**
+     * 当前最小值所在的那一路
+     */
+    int winner() {
+        return tree[0];
+    }
+
+    long winnerKey() {
+        return keys[tree[0]];
+    }
+
+    /**
+     * 更新冠军那一路的当前值并重新比赛
+     */
+    void replaceWinner(long key) {
+        int leaf = tree[0];
+        keys[leaf] = key;
+        adjust(leaf);
+    }
+
+    private void adjust(int leaf) {
+        int winner = leaf;
+        for (int t = (leaf + k) >> 1; t > 0; t >>= 1) {
+            if (beats(tree[t], winner)) {
+                int temp = tree[t];
+                tree[t] = winner;
+                winner = temp;
+            }
+        }
+        tree[0] = winner;
+    }
+
+    //值相同时编号小的一路优先，归并结果稳定
+    private boolean beats(int a, int b) {
+        return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+    }
+}
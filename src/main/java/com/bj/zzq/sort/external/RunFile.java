@@ -0,0 +1,161 @@
+package com.bj.zzq.sort.external;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 一个有序段的临时文件，按本机字节序连续存放int，通过FileChannel和直接内存缓冲顺序读写
+ */
+class RunFile {
+    private final File file;
+    private final long count;
+
+    RunFile(File file, long count) {
+        this.file = file;
+        this.count = count;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    void delete() {
+        file.delete();
+    }
+
+    static Writer writer(File file, int bufferBytes) throws IOException {
+        return new Writer(file, bufferBytes);
+    }
+
+    Reader reader(int bufferBytes) throws IOException {
+        return new Reader(this, bufferBytes);
+    }
+
+    static class Writer {
+        private final File file;
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final IntBuffer ints;
+        private long count;
+        private long bytesWritten;
+
+        private Writer(File file, int bufferBytes) throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.buffer = ByteBuffer.allocateDirect(bufferBytes & ~3).order(ByteOrder.nativeOrder());
+            this.ints = buffer.asIntBuffer();
+        }
+
+        void write(int value) throws IOException {
+            if (!ints.hasRemaining()) {
+                flush();
+            }
+            ints.put(value);
+            count++;
+        }
+
+        void write(int[] data, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (!ints.hasRemaining()) {
+                    flush();
+                }
+                int n = Math.min(length, ints.remaining());
+                ints.put(data, offset, n);
+                offset += n;
+                length -= n;
+                count += n;
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.position(0).limit(ints.position() * 4);
+            while (buffer.hasRemaining()) {
+                bytesWritten += channel.write(buffer);
+            }
+            buffer.clear();
+            ints.clear();
+        }
+
+        long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        RunFile close() throws IOException {
+            flush();
+            channel.close();
+            return new RunFile(file, count);
+        }
+
+        /**
+         * 写到一半出错时调用：关闭通道并删掉没写完的文件。原来的异常更重要，关闭时的异常不再抛出
+         */
+        void abort() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            file.delete();
+        }
+    }
+
+    static class Reader {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final IntBuffer ints;
+        private long remaining;
+        private long bytesRead;
+
+        private Reader(RunFile run, int bufferBytes) throws IOException {
+            this.channel = FileChannel.open(run.file.toPath(), StandardOpenOption.READ);
+            this.buffer = ByteBuffer.allocateDirect(bufferBytes & ~3).order(ByteOrder.nativeOrder());
+            this.ints = buffer.asIntBuffer();
+            this.remaining = run.count;
+            ints.limit(0);
+        }
+
+        boolean hasNext() {
+            return remaining > 0;
+        }
+
+        int next() throws IOException {
+            if (!ints.hasRemaining()) {
+                fill();
+            }
+            remaining--;
+            return ints.get();
+        }
+
+        private void fill() throws IOException {
+            buffer.clear();
+            long want = Math.min((long) buffer.capacity(), remaining * 4);
+            buffer.limit((int) want);
+            while (buffer.hasRemaining()) {
+                int n = channel.read(buffer);
+                if (n < 0) {
+                    throw new IOException("有序段文件长度不足");
+                }
+                bytesRead += n;
+            }
+            ints.clear();
+            ints.limit((int) (want / 4));
+        }
+
+        long getBytesRead() {
+            return bytesRead;
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
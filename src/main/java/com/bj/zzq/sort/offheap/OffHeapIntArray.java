@@ -0,0 +1,129 @@
+package com.bj.zzq.sort.offheap;
+
+import com.bj.zzq.sort.data.DatasetFile;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * 堆外的int数组，下标是long，可以放几十亿个数。数据在直接内存(DirectByteBuffer)里，不占堆，GC也不扫描；
+ * 单个ByteBuffer最多2G字节，所以和DatasetFile一样按段存放，每段SEGMENT_INTS个int，按本机字节序。
+ * 直接内存的上限由-XX:MaxDirectMemorySize控制(默认和最大堆一样大)，跑大数据量时堆可以开得很小，但这个参数要开够。
+ * 直接内存在对象被回收时才释放，用完后不要再持有引用
+ */
+public class OffHeapIntArray {
+    public static final int SEGMENT_SHIFT = 28;
+    public static final int SEGMENT_INTS = 1 << SEGMENT_SHIFT;//每段1G字节，和DatasetFile.SEGMENT_INTS一致
+
+    private final IntBuffer[] segments;
+    private final long length;
+    private final int segmentShift;
+    private final int segmentMask;
+
+    private OffHeapIntArray(IntBuffer[] segments, long length, int segmentShift) {
+        this.segments = segments;
+        this.length = length;
+        this.segmentShift = segmentShift;
+        this.segmentMask = (1 << segmentShift) - 1;
+    }
+
+    public static OffHeapIntArray allocate(long length) {
+        return allocate(length, SEGMENT_SHIFT);
+    }
+
+    /**
+     * 每段1 << segmentShift个int。测试用小段，几千个数就能覆盖跨段的下标和拷贝
+     */
+    static OffHeapIntArray allocate(long length, int segmentShift) {
+        if (length < 0) {
+            throw new IllegalArgumentException("length=" + length);
+        }
+        if (segmentShift < 0 || segmentShift > SEGMENT_SHIFT) {
+            throw new IllegalArgumentException("segmentShift=" + segmentShift);
+        }
+        long segmentInts = 1L << segmentShift;
+        int segmentCount = (int) ((length + segmentInts - 1) >>> segmentShift);
+        IntBuffer[] segments = new IntBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int n = (int) Math.min(segmentInts, length - ((long) i << segmentShift));
+            segments[i] = ByteBuffer.allocateDirect(n * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+        return new OffHeapIntArray(segments, length, segmentShift);
+    }
+
+    /**
+     * 把数据集文件拷到直接内存里，整个过程不经过堆上的数组
+     */
+    public static OffHeapIntArray copyOf(DatasetFile file) {
+        OffHeapIntArray array = allocate(file.count());
+        for (int i = 0; i < file.segmentCount(); i++) {
+            IntBuffer to = array.segments[i].duplicate();
+            to.clear();
+            to.put(file.segment(i));
+        }
+        return array;
+    }
+
+    /**
+     * 直接在可写的数据集文件(DatasetFile.create)的映射上排序，排好后由调用方force
+     */
+    public static OffHeapIntArray wrap(DatasetFile file) {
+        IntBuffer[] segments = new IntBuffer[file.segmentCount()];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = file.segment(i);
+        }
+        return new OffHeapIntArray(segments, file.count(), SEGMENT_SHIFT);
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public int get(long index) {
+        return segments[(int) (index >>> segmentShift)].get((int) index & segmentMask);
+    }
+
+    public void put(long index, int value) {
+        segments[(int) (index >>> segmentShift)].put((int) index & segmentMask, value);
+    }
+
+    public void swap(long i, long j) {
+        int temp = get(i);
+        put(i, get(j));
+        put(j, temp);
+    }
+
+    /**
+     * 把[index, index + n)拷到dst[0, n)，可以跨段
+     */
+    public void get(long index, int[] dst, int n) {
+        int done = 0;
+        while (done < n) {
+            long from = index + done;
+            IntBuffer segment = segments[(int) (from >>> segmentShift)].duplicate();
+            int position = (int) from & segmentMask;
+            int step = Math.min(n - done, segment.limit() - position);
+            segment.position(position);
+            segment.get(dst, done, step);
+            done += step;
+        }
+    }
+
+    /**
+     * 把src[0, n)拷到[index, index + n)
+     */
+    public void put(long index, int[] src, int n) {
+        int done = 0;
+        while (done < n) {
+            long from = index + done;
+            IntBuffer segment = segments[(int) (from >>> segmentShift)].duplicate();
+            int position = (int) from & segmentMask;
+            int step = Math.min(n - done, segment.limit() - position);
+            segment.position(position);
+            segment.put(src, done, step);
+            done += step;
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.bj.zzq.sort.offheap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 堆外数组的基数排序。IntCardinalSort的LSD要一个同样大的中间数组，几十亿个数时多出来的内存太多，
+ * 这里改成原地的MSD(American flag sort)：按最高8位统计每个桶的个数，再在原数组里循环换位把每个数送到自己的桶，
+ * 然后各个桶按下一个8位递归，最多4层。桶小于RADIX_MIN_SIZE时交给OffHeapIntQuickSort，计数的开销不划算。
+ * 最高位的桶之间互不相交，并行度大于1时大桶作为独立任务提交到ForkJoinPool
+ */
+public class OffHeapIntCardinalSort extends OffHeapIntSort {
+    private static final int RADIX_BITS = 8;
+    private static final int BUCKETS = 1 << RADIX_BITS;
+    private static final int RADIX_MIN_SIZE = 1 << 12;
+    private long granularity = 1 << 20;//并行模式下，小于这个规模的桶直接在当前线程排完
+    //并行模式下叶子任务用的计数数组，每个工作线程一份，和OffHeapIntQuickSort的LEAF_STACK一样
+    private static final ThreadLocal<Worker> LEAF_WORKER = ThreadLocal.withInitial(Worker::new);
+
+    public void setGranularity(long granularity) {
+        this.granularity = Math.max(granularity, RADIX_MIN_SIZE);
+    }
+
+    @Override
+    public void sort() {
+        if (length < 2) {
+            return;
+        }
+        if (parallelism > 1 && length > granularity) {
+            getPool().invoke(new RadixAction(offset, offset + length, 32 - RADIX_BITS));
+        } else {
+            new Worker().sortBucket(target, offset, offset + length, 32 - RADIX_BITS);
+        }
+    }
+
+    /**
+     * 第shift位开始的8位；最高的8位把符号位取反，负数排在前面
+     */
+    private static int digit(int value, int shift) {
+        return shift == 32 - RADIX_BITS ? (value >>> shift) ^ (BUCKETS >>> 1) : (value >>> shift) & (BUCKETS - 1);
+    }
+
+    /**
+     * 把[from, to)按第shift位开始的8位原地分到各个桶里
+     *
+     * @param start 返回时start[b]是第b个桶的起点，start[BUCKETS]是to
+     */
+    private static void distribute(OffHeapIntArray target, long from, long to, int shift, long[] start, long[] next) {
+        for (int b = 0; b <= BUCKETS; b++) {
+            start[b] = 0;
+        }
+        for (long i = from; i < to; i++) {
+            start[digit(target.get(i), shift) + 1]++;
+        }
+        start[0] = from;
+        for (int b = 1; b <= BUCKETS; b++) {
+            start[b] += start[b - 1];
+        }
+        System.arraycopy(start, 0, next, 0, BUCKETS);
+        for (int b = 0; b < BUCKETS; b++) {
+            long end = start[b + 1];
+            while (next[b] < end) {
+                //拿出next[b]上的数，一路换到它该去的桶，直到换回一个属于b的数
+                int value = target.get(next[b]);
+                int d = digit(value, shift);
+                while (d != b) {
+                    long position = next[d]++;
+                    int displaced = target.get(position);
+                    target.put(position, value);
+                    value = displaced;
+                    d = digit(value, shift);
+                }
+                target.put(next[b]++, value);
+            }
+        }
+    }
+
+    /**
+     * 单线程递归，每层的计数数组复用，堆上只有4层*2*257个long
+     */
+    private static class Worker {
+        private final long[][] start = new long[32 / RADIX_BITS][BUCKETS + 1];
+        private final long[][] next = new long[32 / RADIX_BITS][BUCKETS];
+        private final long[] stack = new long[3 * 64];
+        private final int[] small = new int[OffHeapIntQuickSort.SMALL_SIZE];
+
+        void sortBucket(OffHeapIntArray target, long from, long to, int shift) {
+            long size = to - from;
+            if (size < RADIX_MIN_SIZE) {
+                if (size > 1) {
+                    OffHeapIntQuickSort.quickSort(target, from, to - 1, OffHeapIntQuickSort.depthLimit(size), stack, small);
+                }
+                return;
+            }
+            int level = (32 - RADIX_BITS - shift) / RADIX_BITS;
+            long[] bounds = start[level];
+            distribute(target, from, to, shift, bounds, next[level]);
+            if (shift == 0) {
+                return;
+            }
+            for (int b = 0; b < BUCKETS; b++) {
+                sortBucket(target, bounds[b], bounds[b + 1], shift - RADIX_BITS);
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private class RadixAction extends RecursiveAction {
+        private final long from;
+        private final long to;
+        private final int shift;
+
+        RadixAction(long from, long to, int shift) {
+            this.from = from;
+            this.to = to;
+            this.shift = shift;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= granularity) {
+                LEAF_WORKER.get().sortBucket(target, from, to, shift);
+                return;
+            }
+            long[] bounds = new long[BUCKETS + 1];
+            distribute(target, from, to, shift, bounds, new long[BUCKETS]);
+            if (shift == 0) {
+                return;
+            }
+            List<RadixAction> tasks = new ArrayList<>();
+            for (int b = 0; b < BUCKETS; b++) {
+                if (bounds[b + 1] - bounds[b] > 1) {
+                    tasks.add(new RadixAction(bounds[b], bounds[b + 1], shift - RADIX_BITS));
+                }
+            }
+            invokeAll(tasks);
+        }
+    }
+
+}
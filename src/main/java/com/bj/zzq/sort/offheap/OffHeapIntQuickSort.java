@@ -0,0 +1,183 @@
+package com.bj.zzq.sort.offheap;
+
+import com.bj.zzq.sort.SmallSort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 堆外数组的快速排序，算法和IntQuickSort一样：三数取中、双指针划分、较大的一边入栈，
+ * 递归深度超过2*log2(n)时改用堆排序。n<=SMALL_SIZE的小区间拷到堆上的小数组里交给SmallSort，再拷回去。
+ * 并行度大于1时，大于granularity的划分把一边作为任务交给ForkJoinPool
+ */
+public class OffHeapIntQuickSort extends OffHeapIntSort {
+    static final int SMALL_SIZE = 32;
+    private static final int STACK_SIZE = 3 * 64;//栈里每项是(left, right, depth)，先处理较小的一边时不超过63项
+    private long granularity = 1 << 20;//并行模式下，小于这个规模的区间在当前线程排完
+    //并行模式下叶子任务用的栈和小数组，每个工作线程一份；叶子在线程里一口气排完，不会和别的任务共用
+    private static final ThreadLocal<long[]> LEAF_STACK = ThreadLocal.withInitial(() -> new long[STACK_SIZE]);
+    private static final ThreadLocal<int[]> LEAF_SMALL = ThreadLocal.withInitial(() -> new int[SMALL_SIZE]);
+
+    public void setGranularity(long granularity) {
+        this.granularity = Math.max(granularity, SMALL_SIZE);
+    }
+
+    @Override
+    public void sort() {
+        if (length < 2) {
+            return;
+        }
+        long left = offset;
+        long right = offset + length - 1;
+        if (parallelism > 1 && length > granularity) {
+            getPool().invoke(new QuickAction(left, right, depthLimit(length)));
+        } else {
+            quickSort(target, left, right, depthLimit(length), new long[STACK_SIZE], new int[SMALL_SIZE]);
+        }
+    }
+
+    static int depthLimit(long size) {
+        return 2 * (63 - Long.numberOfLeadingZeros(Math.max(size, 1)));
+    }
+
+    /**
+     * 单线程排序target[left, right]
+     *
+     * @param stack 至少STACK_SIZE
+     * @param small 至少SMALL_SIZE，小区间的中转
+     */
+    static void quickSort(OffHeapIntArray target, long left, long right, int depth, long[] stack, int[] small) {
+        int top = 0;
+        while (true) {
+            long size = right - left + 1;
+            if (size > SMALL_SIZE) {
+                if (depth == 0) {
+                    heapSort(target, left, right);
+                } else {
+                    long middle = partition(target, left, right);
+                    depth--;
+                    if (middle - left < right - middle) {
+                        stack[top++] = middle + 1;
+                        stack[top++] = right;
+                        stack[top++] = depth;
+                        right = middle - 1;
+                    } else {
+                        stack[top++] = left;
+                        stack[top++] = middle - 1;
+                        stack[top++] = depth;
+                        left = middle + 1;
+                    }
+                    continue;
+                }
+            } else if (size > 1) {
+                int n = (int) size;
+                target.get(left, small, n);
+                SmallSort.sort(small, 0, n - 1);
+                target.put(left, small, n);
+            }
+            if (top == 0) {
+                return;
+            }
+            depth = (int) stack[--top];
+            right = stack[--top];
+            left = stack[--top];
+        }
+    }
+
+    /**
+     * 三数取中后把枢纽放在right-1，left和right分别是两边的哨兵
+     *
+     * @return 枢纽最终的位置
+     */
+    static long partition(OffHeapIntArray target, long left, long right) {
+        long middle = (left + right) >>> 1;
+        if (target.get(left) > target.get(middle)) {
+            target.swap(left, middle);
+        }
+        if (target.get(left) > target.get(right)) {
+            target.swap(left, right);
+        }
+        if (target.get(middle) > target.get(right)) {
+            target.swap(middle, right);
+        }
+        target.swap(middle, right - 1);
+        int pivot = target.get(right - 1);
+        long leftPart = left;
+        long rightPart = right - 1;
+        while (true) {
+            while (target.get(++leftPart) < pivot) ;
+            while (target.get(--rightPart) > pivot) ;
+            if (leftPart >= rightPart) {
+                break;
+            }
+            target.swap(leftPart, rightPart);
+        }
+        target.swap(leftPart, right - 1);
+        return leftPart;
+    }
+
+    static void heapSort(OffHeapIntArray target, long left, long right) {
+        long n = right - left + 1;
+        for (long i = n / 2 - 1; i >= 0; i--) {
+            siftDown(target, left, i, n);
+        }
+        for (long end = n - 1; end > 0; end--) {
+            target.swap(left, left + end);
+            siftDown(target, left, 0, end);
+        }
+    }
+
+    private static void siftDown(OffHeapIntArray target, long base, long index, long size) {
+        int value = target.get(base + index);
+        long half = size >>> 1;
+        while (index < half) {
+            long child = 2 * index + 1;
+            int childValue = target.get(base + child);
+            if (child + 1 < size) {
+                int rightValue = target.get(base + child + 1);
+                if (rightValue > childValue) {
+                    child++;
+                    childValue = rightValue;
+                }
+            }
+            if (value >= childValue) {
+                break;
+            }
+            target.put(base + index, childValue);
+            index = child;
+        }
+        target.put(base + index, value);
+    }
+
+    /**
+     * 大区间划分一次，两边各作为一个任务；不超过granularity后单线程排完
+     */
+    @SuppressWarnings("serial")
+    private class QuickAction extends RecursiveAction {
+        private final long left;
+        private final long right;
+        private final int depth;
+
+        QuickAction(long left, long right, int depth) {
+            this.left = left;
+            this.right = right;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            long size = right - left + 1;
+            if (size <= granularity || depth == 0) {
+                quickSort(target, left, right, depth, LEAF_STACK.get(), LEAF_SMALL.get());
+                return;
+            }
+            long middle = partition(target, left, right);
+            List<QuickAction> tasks = new ArrayList<>(2);
+            tasks.add(new QuickAction(left, middle - 1, depth - 1));
+            tasks.add(new QuickAction(middle + 1, right, depth - 1));
+            invokeAll(tasks);
+        }
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.bj.zzq.sort.offheap;
+
+import com.bj.zzq.sort.AbstractParallelSort;
+
+/**
+ * 堆外数组排序，和IntSort对应，下标和长度都是long。
+ * 实现只在堆上用O(1)或O(log n)的辅助空间，几十亿个数排序时堆只需要很小
+ */
+public abstract class OffHeapIntSort extends AbstractParallelSort {
+    protected OffHeapIntArray target;
+    protected long offset;//排序起始下标
+    protected long length;//排序元素个数
+
+    public void setTarget(OffHeapIntArray target) {
+        setTarget(target, 0, target.length());
+    }
+
+    /**
+     * 只对target[offset, offset + length)这一段排序
+     */
+    public void setTarget(OffHeapIntArray target, long offset, long length) {
+        if (offset < 0 || length < 0 || offset > target.length() - length) {
+            throw new ArrayIndexOutOfBoundsException("offset=" + offset + ",length=" + length + ",array.length=" + target.length());
+        }
+        this.target = target;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public abstract void sort();
+
+}
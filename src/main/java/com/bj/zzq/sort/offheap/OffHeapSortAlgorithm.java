@@ -0,0 +1,34 @@
+package com.bj.zzq.sort.offheap;
+
+import java.util.function.Supplier;
+
+/**
+ * 所有OffHeapIntSort实现的登记表，algorithmId和SortAlgorithm共用algorithm表的主键，不能和它重复。
+ * 堆外排序不是Sort，放不进SortAlgorithm，单独登记
+ */
+public enum OffHeapSortAlgorithm {
+    QUICK_SORT(20, "堆外快排，long下标，三数取中、较大的一边入栈，introsort兜底", OffHeapIntQuickSort::new),
+    CARDINAL_SORT(21, "堆外基数排序，原地MSD(American flag sort)按8位一层，小桶交给堆外快排", OffHeapIntCardinalSort::new);
+
+    private final int algorithmId;
+    private final String mark;
+    private final Supplier<OffHeapIntSort> factory;
+
+    OffHeapSortAlgorithm(int algorithmId, String mark, Supplier<OffHeapIntSort> factory) {
+        this.algorithmId = algorithmId;
+        this.mark = mark;
+        this.factory = factory;
+    }
+
+    public int getAlgorithmId() {
+        return algorithmId;
+    }
+
+    public String getMark() {
+        return mark;
+    }
+
+    public OffHeapIntSort create() {
+        return factory.get();
+    }
+}
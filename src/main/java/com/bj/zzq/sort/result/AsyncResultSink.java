@@ -0,0 +1,113 @@
+package com.bj.zzq.sort.result;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步批量写结果。add只是入队，由后台线程攒够一批，或者这一批的第一条入队后等满maxWaitMillis，再交给ResultWriter一次写出，
+ * 写库/写文件都不在计时路径上
+ */
+public class AsyncResultSink implements ResultSink {
+    private static final SortResult END = new SortResult(0, 0, 0);//关闭标记
+
+    private final LinkedBlockingQueue<SortResult> queue = new LinkedBlockingQueue<SortResult>();
+    private final ResultWriter writer;
+    private final int batchSize;
+    private final long maxWaitMillis;
+    private final Thread worker;
+    private volatile boolean closed;
+
+    public AsyncResultSink(ResultWriter writer) {
+        this(writer, 100, 1000);
+    }
+
+    /**
+     * @param batchSize     每批最多写多少行
+     * @param maxWaitMillis 不满一批时，从这一批的第一条算起最多等多久就写出
+     */
+    public AsyncResultSink(ResultWriter writer, int batchSize, long maxWaitMillis) {
+        this.writer = writer;
+        this.batchSize = batchSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.worker = new Thread(new Runnable() {
+            public void run() {
+                drain();
+            }
+        }, "sort-result-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void add(SortResult result) {
+        if (closed) {
+            throw new IllegalStateException("sink已关闭");
+        }
+        queue.offer(result);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.offer(END);
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        List<SortResult> batch = new ArrayList<SortResult>(batchSize);
+        boolean end = false;
+        try {
+            while (!end) {
+                //空闲时一直等，这一批的第一条到了才开始计时
+                SortResult next = queue.take();
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+                while (next != null && next != END) {
+                    batch.add(next);
+                    if (batch.size() >= batchSize) {
+                        break;
+                    }
+                    //超时返回null，不满一批也写出
+                    next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                }
+                if (next == END) {
+                    //关闭标记之后不应再有数据，和close并发add进来的也一起写掉
+                    queue.drainTo(batch);
+                    batch.remove(END);
+                    end = true;
+                }
+                flush(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void flush(List<SortResult> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            writer.write(batch);
+        } catch (IOException | RuntimeException e) {
+            //写失败不影响排序，丢弃这一批；运行时异常也不能让后台线程退出，否则之后的结果都没人写
+            e.printStackTrace();
+        }
+        batch.clear();
+    }
+}
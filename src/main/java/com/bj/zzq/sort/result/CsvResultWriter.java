@@ -0,0 +1,82 @@
+package com.bj.zzq.sort.result;
+
+import com.bj.zzq.sort.SortMetrics;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.List;
+
+/**
+ * 本地追加写CSV文件，列和sort_example表一致，不需要数据库也能记录结果。
+ * 开启-Dsort.metrics=true时在后面多写比较次数等计数列，没有计数的行这几列留空。
+ * 追加到已有文件时列以文件的表头为准：表头有计数列就一直写(没开启时留空)，
+ * 表头没有计数列而又开启了计数，或者表头对不上，就不写，避免一个文件里列数不一致
+ */
+public class CsvResultWriter implements ResultWriter {
+    private static final String HEADER = "data_count,algorithm_id,cost,create_time";
+    private static final String METRICS_HEADER = ",comparisons,moves,max_depth,passes,scratch_bytes";
+
+    private final File file;
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private Writer writer;
+    private boolean metricsColumns;//这个文件有没有计数列
+
+    public CsvResultWriter(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public void write(List<SortResult> batch) throws IOException {
+        if (writer == null) {
+            open();
+        }
+        for (SortResult result : batch) {
+            writer.write(result.getDataCount() + "," + result.getAlgorithmId() + "," + result.getCost() + ","
+                    + dateFormat.format(result.getCreateTime()));
+            if (metricsColumns) {
+                SortMetrics metrics = result.getMetrics();
+                if (metrics == null) {
+                    writer.write(",,,,,");
+                } else {
+                    writer.write("," + metrics.getComparisons() + "," + metrics.getMoves() + "," + metrics.getMaxDepth()
+                            + "," + metrics.getPasses() + "," + metrics.getScratchBytes());
+                }
+            }
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private void open() throws IOException {
+        boolean newFile = !file.exists() || file.length() == 0;
+        if (newFile) {
+            metricsColumns = SortMetrics.ENABLED;
+        } else {
+            String header;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+                header = reader.readLine();
+            }
+            if ((HEADER + METRICS_HEADER).equals(header)) {
+                metricsColumns = true;
+            } else if (HEADER.equals(header) && !SortMetrics.ENABLED) {
+                metricsColumns = false;
+            } else {
+                throw new IOException(file + "的表头是" + header + "，和要写的列不一致(sort.metrics=" + SortMetrics.ENABLED
+                        + ")，请用-Dsort.result.file换一个文件");
+            }
+        }
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+        if (newFile) {
+            writer.write(metricsColumns ? HEADER + METRICS_HEADER : HEADER);
+            writer.write('\n');
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+}
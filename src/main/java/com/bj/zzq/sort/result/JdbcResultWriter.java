@@ -0,0 +1,113 @@
+package com.bj.zzq.sort.result;
+
+import com.bj.zzq.sort.SortMetrics;
+
+import java.io.IOException;
+import java.sql.*;
+import java.util.List;
+
+/**
+ * 批量写入sort_example表，一批只执行一次executeBatch。
+ * 开启-Dsort.metrics=true时同时写计数列(sort_example.sql末尾的ALTER TABLE加的列)，没有计数的行写NULL
+ */
+public class JdbcResultWriter implements ResultWriter {
+    private static final String SQL = "insert into sort_example(data_count,algorithm_id,cost,create_time) values(?,?,?,?)";
+    private static final String METRICS_SQL = "insert into sort_example(data_count,algorithm_id,cost,create_time,"
+            + "comparisons,moves,max_depth,passes,scratch_bytes) values(?,?,?,?,?,?,?,?,?)";
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private Connection conn;
+    private PreparedStatement statement;
+
+    public JdbcResultWriter(String url, String username, String password) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    @Override
+    public void write(List<SortResult> batch) throws IOException {
+        try {
+            if (statement == null) {
+                //第一次写的时候才连库，在后台线程里，连不上也不影响排序
+                open();
+            }
+            for (SortResult result : batch) {
+                statement.setLong(1, result.getDataCount());
+                statement.setInt(2, result.getAlgorithmId());
+                statement.setLong(3, result.getCost());
+                statement.setTimestamp(4, new Timestamp(result.getCreateTime().getTime()));
+                if (SortMetrics.ENABLED) {
+                    setMetrics(result.getMetrics());
+                }
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        } catch (SQLException | RuntimeException e) {
+            //连接可能已经不可用，关掉重来，下一批重新连库
+            release(e);
+            throw new IOException(e);
+        }
+    }
+
+    private void open() throws SQLException {
+        conn = DriverManager.getConnection(url, username, password);
+        statement = conn.prepareStatement(SortMetrics.ENABLED ? METRICS_SQL : SQL);
+    }
+
+    /**
+     * 出错后关闭连接并清空，关闭时的异常附加到原来的异常上
+     */
+    private void release(Exception cause) {
+        try {
+            close();
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void setMetrics(SortMetrics metrics) throws SQLException {
+        if (metrics == null) {
+            for (int i = 5; i <= 9; i++) {
+                statement.setNull(i, Types.BIGINT);
+            }
+            return;
+        }
+        statement.setLong(5, metrics.getComparisons());
+        statement.setLong(6, metrics.getMoves());
+        statement.setLong(7, metrics.getMaxDepth());
+        statement.setLong(8, metrics.getPasses());
+        statement.setLong(9, metrics.getScratchBytes());
+    }
+
+    @Override
+    public void close() throws IOException {
+        //statement和连接各自关闭，一个失败也要关另一个，关完后清空，下次write重新连库
+        SQLException failure = null;
+        if (statement != null) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                failure = e;
+            }
+            statement = null;
+        }
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+            conn = null;
+        }
+        if (failure != null) {
+            throw new IOException(failure);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.bj.zzq.sort.result;
+
+/**
+ * 排序结果的收集入口，add不能阻塞计时的线程
+ */
+public interface ResultSink extends AutoCloseable {
+
+    void add(SortResult result);
+
+    /**
+     * 写完所有已提交的结果再返回
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,26 @@
+package com.bj.zzq.sort.result;
+
+import java.io.File;
+
+/**
+ * 按系统属性选择存储后端：配置了-Dsort.jdbc.url时批量写库(-Dsort.jdbc.username/-Dsort.jdbc.password)，
+ * 否则追加写本地CSV文件(-Dsort.result.file，默认sort_example.csv)。
+ * 两种后端在-Dsort.metrics=true时都会把SortMetrics的计数写在耗时旁边
+ */
+public class ResultSinks {
+
+    private ResultSinks() {
+    }
+
+    public static ResultSink fromSystemProperties() {
+        String url = System.getProperty("sort.jdbc.url");
+        ResultWriter writer;
+        if (url != null && !url.isEmpty()) {
+            writer = new JdbcResultWriter(url, System.getProperty("sort.jdbc.username", "root"),
+                    System.getProperty("sort.jdbc.password", ""));
+        } else {
+            writer = new CsvResultWriter(new File(System.getProperty("sort.result.file", "sort_example.csv")));
+        }
+        return new AsyncResultSink(writer);
+    }
+}
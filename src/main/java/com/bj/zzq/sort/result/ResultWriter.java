@@ -0,0 +1,14 @@
+package com.bj.zzq.sort.result;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 结果的存储后端，只在AsyncResultSink的后台线程里被调用，不需要考虑线程安全
+ */
+public interface ResultWriter {
+
+    void write(List<SortResult> batch) throws IOException;
+
+    void close() throws IOException;
+}
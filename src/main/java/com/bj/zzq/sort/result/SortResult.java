@@ -0,0 +1,56 @@
+package com.bj.zzq.sort.result;
+
+import com.bj.zzq.sort.SortMetrics;
+
+import java.util.Date;
+
+/**
+ * 一次排序的结果，对应sort_example表的一行
+ */
+public class SortResult {
+    private final long dataCount;//排序的数据量，堆外排序可以超过int范围
+    private final int algorithmId;//算法id
+    private final long cost;//排序完所花时间，纳秒
+    private final Date createTime;
+    private final SortMetrics metrics;//排序过程的计数，没有开启-Dsort.metrics时为null
+
+    public SortResult(long dataCount, int algorithmId, long cost) {
+        this(dataCount, algorithmId, cost, (SortMetrics) null);
+    }
+
+    public SortResult(long dataCount, int algorithmId, long cost, SortMetrics metrics) {
+        this(dataCount, algorithmId, cost, new Date(), metrics);
+    }
+
+    public SortResult(long dataCount, int algorithmId, long cost, Date createTime) {
+        this(dataCount, algorithmId, cost, createTime, null);
+    }
+
+    public SortResult(long dataCount, int algorithmId, long cost, Date createTime, SortMetrics metrics) {
+        this.dataCount = dataCount;
+        this.algorithmId = algorithmId;
+        this.cost = cost;
+        this.createTime = createTime;
+        this.metrics = metrics;
+    }
+
+    public long getDataCount() {
+        return dataCount;
+    }
+
+    public int getAlgorithmId() {
+        return algorithmId;
+    }
+
+    public long getCost() {
+        return cost;
+    }
+
+    public Date getCreateTime() {
+        return createTime;
+    }
+
+    public SortMetrics getMetrics() {
+        return metrics;
+    }
+}
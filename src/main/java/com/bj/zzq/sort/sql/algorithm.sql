@@ -23,10 +23,10 @@ SET FOREIGN_KEY_CHECKS = 0;
 DROP TABLE IF EXISTS `algorithm`;
 CREATE TABLE `algorithm`  (
   `id` int(11) UNSIGNED NOT NULL AUTO_INCREMENT COMMENT '主键',
-  `algorithm_type` char(1) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '算法类型 1-快速排序 2-希尔排序 3-归并排序 4-插入排序 5-基数排序',
+  `algorithm_type` char(1) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '算法类型 1-快速排序 2-希尔排序 3-归并排序 4-插入排序 5-基数排序 6-堆排序 7-自动选择 8-堆外排序',
   `mark` varchar(200) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '算法说明',
   PRIMARY KEY (`id`) USING BTREE
-) ENGINE = InnoDB AUTO_INCREMENT = 11 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci ROW_FORMAT = Dynamic;
+) ENGINE = InnoDB AUTO_INCREMENT = 22 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci ROW_FORMAT = Dynamic;
 
 -- ----------------------------
 -- Records of algorithm
@@ -40,5 +40,16 @@ INSERT INTO `algorithm` VALUES (6, '1', '快排,n<=3时，对于小划分不处
 INSERT INTO `algorithm` VALUES (7, '1', '快排,n<=9时，对于小划分不处理，最后统一使用插入排序');
 INSERT INTO `algorithm` VALUES (8, '5', '基数排序，基数为10,位数为Integer.MAX_VALUE的位数');
 INSERT INTO `algorithm` VALUES (10, '1', '普通快排，枢纽为最右边数字');
+INSERT INTO `algorithm` VALUES (11, '5', '基数排序，LSD按二进制8位一趟计数分配，跳过所有数相同的位，支持负数');
+INSERT INTO `algorithm` VALUES (12, '3', '并行归并排序，源数组和中间数组交替使用，大的合并二分切分后并行');
+INSERT INTO `algorithm` VALUES (13, '6', '堆排序，原地、最坏O(nlogn)，也是快排的introsort兜底');
+INSERT INTO `algorithm` VALUES (14, '1', '双枢纽快排，5个等距样本取第2、4个为枢纽，n<=9时使用插入排序');
+INSERT INTO `algorithm` VALUES (15, '1', '三路划分快排(Bentley-McIlroy)，等于枢纽的数聚到中间不再递归，n<=9时使用插入排序');
+INSERT INTO `algorithm` VALUES (16, '3', '自适应归并排序(Timsort)，识别天然run，二分插入补足最短run，galloping合并，稳定');
+INSERT INTO `algorithm` VALUES (17, '2', '希尔排序，按规模自动选增量序列(小规模Ciura，大规模Sedgewick)，每趟交错h排序');
+INSERT INTO `algorithm` VALUES (18, '7', '按抽样自动选择：插入排序、基数排序、三路快排或自适应归并');
+INSERT INTO `algorithm` VALUES (19, '3', '原地稳定归并排序，只用√n大小的缓冲区，放不下时二分切分加旋转合并');
+INSERT INTO `algorithm` VALUES (20, '8', '堆外快排，long下标，三数取中、较大的一边入栈，introsort兜底');
+INSERT INTO `algorithm` VALUES (21, '8', '堆外基数排序，原地MSD(American flag sort)按8位一层，小桶交给堆外快排');
 
 SET FOREIGN_KEY_CHECKS = 1;
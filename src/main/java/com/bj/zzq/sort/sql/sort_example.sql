@@ -25,7 +25,7 @@ CREATE TABLE `sort_example`  (
   `id` int(11) UNSIGNED NOT NULL AUTO_INCREMENT COMMENT '主键',
   `data_count` int(11) NOT NULL COMMENT '排序的数据量',
   `algorithm_id` int(11) NOT NULL COMMENT '算法id',
-  `cost` varchar(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '排序完所花时间',
+  `cost` bigint(20) NOT NULL COMMENT '排序完所花时间，纳秒',
   `create_time` timestamp(0) NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP(0) COMMENT '创建时间',
   PRIMARY KEY (`id`) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 5692 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci ROW_FORMAT = Dynamic;
@@ -5718,4 +5718,20 @@ INSERT INTO `sort_example` VALUES (5689, 10000000, 10, '2012783039', '2019-04-09
 INSERT INTO `sort_example` VALUES (5690, 100000000, 10, '209083733612', '2019-04-09 18:59:56');
 INSERT INTO `sort_example` VALUES (5691, 100000000, 10, '166932541926', '2019-04-09 19:03:47');
 
+-- ----------------------------
+-- 排序过程的计数，-Dsort.metrics=true时才写入，上面的历史记录为NULL
+-- ----------------------------
+ALTER TABLE `sort_example`
+  ADD COLUMN `comparisons` bigint(20) NULL DEFAULT NULL COMMENT '比较次数' AFTER `cost`,
+  ADD COLUMN `moves` bigint(20) NULL DEFAULT NULL COMMENT '元素写入次数，交换算2次' AFTER `comparisons`,
+  ADD COLUMN `max_depth` bigint(20) NULL DEFAULT NULL COMMENT '最大递归深度' AFTER `moves`,
+  ADD COLUMN `passes` bigint(20) NULL DEFAULT NULL COMMENT '整段扫描的次数' AFTER `max_depth`,
+  ADD COLUMN `scratch_bytes` bigint(20) NULL DEFAULT NULL COMMENT '新分配的中间数组字节数' AFTER `passes`;
+
+-- ----------------------------
+-- 堆外排序的数据量可以超过int范围
+-- ----------------------------
+ALTER TABLE `sort_example`
+  MODIFY COLUMN `data_count` bigint(20) NOT NULL COMMENT '排序的数据量';
+
 SET FOREIGN_KEY_CHECKS = 1;
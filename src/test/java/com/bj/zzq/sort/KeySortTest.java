@@ -0,0 +1,127 @@
+package com.bj.zzq.sort;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * KeySort按int键、double键排序的结果和稳定性，和稳定的Arrays.sort(T[], Comparator)比较
+ */
+public class KeySortTest {
+    private static final int[] SIZES = {0, 1, 2, 17, 1000, 100000};
+    private static final int PARALLEL_SIZE = 300000;
+
+    @Test
+    public void sortsByIntKeyStably() {
+        for (int size : SIZES) {
+            checkIntKey(items(size, 50), 1);
+            checkIntKey(items(size, Integer.MAX_VALUE), 1);
+        }
+    }
+
+    @Test
+    public void sortsByIntKeyStablyInParallel() {
+        checkIntKey(items(PARALLEL_SIZE, 50), 4);
+        checkIntKey(items(PARALLEL_SIZE, Integer.MAX_VALUE), 4);
+    }
+
+    @Test
+    public void sortsByDoubleKeyStably() {
+        for (int size : SIZES) {
+            Item[] target = items(size, 50);
+            Item[] expected = target.clone();
+            Arrays.sort(expected, Comparator.comparingDouble(item -> item.weight));
+            KeySort<Item> sort = new KeySort<Item>();
+            sort.setTarget(target);
+            sort.setDoubleKey(item -> item.weight);
+            assertArrayEquals("argsort,n=" + size, ids(expected), permuted(target, sort.argsort()));
+            sort.sort();
+            assertSameOrder("double,n=" + size, expected, target);
+        }
+    }
+
+    @Test
+    public void ordersSpecialDoubles() {
+        double[] weights = {0.0, -0.0, Double.NaN, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, -1.5, 1.5,
+                Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, 0.0, Double.NaN};
+        Item[] target = new Item[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            target[i] = new Item(i, 0, weights[i]);
+        }
+        Item[] expected = target.clone();
+        //Double.compare：-0.0在0.0前面，NaN最大
+        Arrays.sort(expected, (a, b) -> Double.compare(a.weight, b.weight));
+        KeySort<Item> sort = new KeySort<Item>();
+        sort.setTarget(target);
+        sort.setDoubleKey(item -> item.weight);
+        sort.sort();
+        assertSameOrder("special doubles", expected, target);
+    }
+
+    private static void checkIntKey(Item[] target, int parallelism) {
+        Item[] expected = target.clone();
+        Arrays.sort(expected, Comparator.comparingInt(item -> item.key));
+        KeySort<Item> sort = new KeySort<Item>();
+        sort.setParallelism(parallelism);
+        sort.setTarget(target);
+        sort.setIntKey(item -> item.key);
+        String message = "int,n=" + target.length + ",parallelism=" + parallelism;
+        try {
+            assertArrayEquals("argsort," + message, ids(expected), permuted(target, sort.argsort()));
+            sort.sort();
+        } finally {
+            sort.shutdown();
+        }
+        assertSameOrder(message, expected, target);
+    }
+
+    //键在[-bound/2, bound/2)附近，bound小时有大量重复键
+    private static Item[] items(int size, int bound) {
+        SplittableRandom random = new SplittableRandom(20190408L);
+        Item[] items = new Item[size];
+        for (int i = 0; i < size; i++) {
+            int key = bound == Integer.MAX_VALUE ? random.nextInt() : random.nextInt(bound) - bound / 2;
+            items[i] = new Item(i, key, key / 4.0);
+        }
+        return items;
+    }
+
+    private static int[] ids(Item[] items) {
+        int[] ids = new int[items.length];
+        for (int i = 0; i < items.length; i++) {
+            ids[i] = items[i].id;
+        }
+        return ids;
+    }
+
+    private static int[] permuted(Item[] items, int[] perm) {
+        int[] ids = new int[perm.length];
+        for (int i = 0; i < perm.length; i++) {
+            ids[i] = items[perm[i]].id;
+        }
+        return ids;
+    }
+
+    private static void assertSameOrder(String message, Item[] expected, Item[] actual) {
+        for (int i = 0; i < expected.length; i++) {
+            assertSame(message + ",i=" + i, expected[i], actual[i]);
+        }
+    }
+
+    private static final class Item {
+        final int id;
+        final int key;
+        final double weight;
+
+        Item(int id, int key, double weight) {
+            this.id = id;
+            this.key = key;
+            this.weight = weight;
+        }
+    }
+}
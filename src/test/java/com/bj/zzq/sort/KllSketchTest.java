@@ -0,0 +1,122 @@
+package com.bj.zzq.sort;
+
+import com.bj.zzq.sort.data.DatasetGenerator;
+import com.bj.zzq.sort.data.Distribution;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * KllSketch的rank误差：近似分位数在全部数据中的rank和目标分位的差，不超过文档给出的1.7/k的两倍。
+ * 种子固定，结果可以复现
+ */
+public class KllSketchTest {
+    private static final double[] FRACTIONS = {0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99};
+    private static final int SIZE = 200000;
+    private static final int PARTS = 4;
+
+    @Test
+    public void rankErrorWithinBound() {
+        DatasetGenerator generator = new DatasetGenerator(20261016L);
+        for (int k : new int[]{50, KllSketch.DEFAULT_K}) {
+            double bound = 2 * 1.7 / k;
+            for (Distribution distribution : Distribution.values()) {
+                int[] data = generator.generate(distribution, SIZE);
+                int[] sorted = data.clone();
+                Arrays.sort(sorted);
+                KllSketch single = new KllSketch(k, 1L);
+                for (int value : data) {
+                    single.update(value);
+                }
+                KllSketch merged = merged(data, k);
+                assertEquals(SIZE, single.getN());
+                assertEquals(SIZE, merged.getN());
+                for (double fraction : FRACTIONS) {
+                    String message = distribution + ",k=" + k + ",fraction=" + fraction;
+                    double error = rankError(sorted, single.quantile(fraction), fraction);
+                    assertTrue(message + ",error=" + error, error <= bound);
+                    double mergedError = rankError(sorted, merged.quantile(fraction), fraction);
+                    assertTrue("merged," + message + ",error=" + mergedError, mergedError <= bound);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void keepsFewSamples() {
+        KllSketch sketch = new KllSketch(KllSketch.DEFAULT_K, 1L);
+        for (int i = 0; i < 1000000; i++) {
+            sketch.update(i);
+        }
+        //总容量是k的几何级数，约3k
+        assertTrue("retained=" + sketch.getRetained(), sketch.getRetained() <= 4 * KllSketch.DEFAULT_K);
+    }
+
+    @Test
+    public void exactForExtremesAndSmallInput() {
+        KllSketch sketch = new KllSketch(KllSketch.DEFAULT_K, 1L);
+        int[] values = {5, -3, 9, 0, 12, 7, -8};
+        for (int value : values) {
+            sketch.update(value);
+        }
+        assertEquals(-8, sketch.quantile(0));
+        assertEquals(12, sketch.quantile(1));
+        //没有压缩过时就是精确的
+        assertEquals(5, sketch.quantile(0.5));
+        assertEquals(4.0 / 7, sketch.rank(5), 1e-9);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void emptySketchHasNoQuantile() {
+        new KllSketch().quantile(0.5);
+    }
+
+    //数据切成PARTS段，每段一个sketch，再依次merge
+    private static KllSketch merged(int[] data, int k) {
+        KllSketch result = null;
+        for (int t = 0; t < PARTS; t++) {
+            KllSketch sketch = new KllSketch(k, t + 2L);
+            for (int i = data.length * t / PARTS; i < data.length * (t + 1) / PARTS; i++) {
+                sketch.update(data[i]);
+            }
+            if (result == null) {
+                result = sketch;
+            } else {
+                result.merge(sketch);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 值相同的数rank是一个区间，目标分位落在区间内时误差为0
+     */
+    private static double rankError(int[] sorted, int value, double fraction) {
+        double lowRank = (double) lowerBound(sorted, value) / sorted.length;
+        double highRank = (double) lowerBound(sorted, value + 1L) / sorted.length;
+        if (fraction < lowRank) {
+            return lowRank - fraction;
+        }
+        if (fraction > highRank) {
+            return fraction - highRank;
+        }
+        return 0;
+    }
+
+    private static int lowerBound(int[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
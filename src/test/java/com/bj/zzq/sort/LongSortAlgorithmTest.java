@@ -0,0 +1,104 @@
+package com.bj.zzq.sort;
+
+import com.bj.zzq.sort.data.DatasetGenerator;
+import com.bj.zzq.sort.data.Distribution;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * LongSortAlgorithm登记的每个算法，在各个分布、各个规模上和Arrays.sort的结果比较。
+ * int数据放到高32位、低32位再放一份，保持分布的形状，同时高低两半都有值
+ */
+public class LongSortAlgorithmTest {
+    private static final int[] SIZES = {0, 1, 2, 3, 9, 10, 17, 100, 1000, 10000};
+    private static final int PARALLEL_SIZE = 300000;
+
+    @Test
+    public void sortsLikeArraysSort() {
+        DatasetGenerator generator = new DatasetGenerator(20190408L);
+        for (LongSortAlgorithm algorithm : LongSortAlgorithm.values()) {
+            for (Distribution distribution : Distribution.values()) {
+                for (int size : SIZES) {
+                    if (size <= algorithm.getMaxSize()) {
+                        check(algorithm, 1, widen(generator.generate(distribution, size)), distribution);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sortsInParallel() {
+        DatasetGenerator generator = new DatasetGenerator(20190408L);
+        for (LongSortAlgorithm algorithm : LongSortAlgorithm.values()) {
+            if (!algorithm.isParallel()) {
+                continue;
+            }
+            for (Distribution distribution : Distribution.values()) {
+                check(algorithm, 4, widen(generator.generate(distribution, PARALLEL_SIZE)), distribution);
+            }
+        }
+    }
+
+    @Test
+    public void sortsFullRangeValues() {
+        Random random = new Random(20190408L);
+        long[] origin = new long[10000];
+        for (int i = 0; i < origin.length; i++) {
+            origin[i] = random.nextLong();
+        }
+        for (LongSortAlgorithm algorithm : LongSortAlgorithm.values()) {
+            check(algorithm, 1, origin.clone(), null);
+        }
+    }
+
+    @Test
+    public void sortsNegativeAndExtremeValues() {
+        long[] origin = {0, -1, Long.MIN_VALUE, Long.MAX_VALUE, 5, -5, Long.MIN_VALUE, 1, -1, Long.MAX_VALUE,
+                Integer.MIN_VALUE, Integer.MAX_VALUE, 1L << 32, -(1L << 32), 0xFFFFFFFFL, 1L << 62, -(1L << 62), 255, -256, 17};
+        for (LongSortAlgorithm algorithm : LongSortAlgorithm.values()) {
+            check(algorithm, 1, origin.clone(), null);
+        }
+    }
+
+    @Test
+    public void sortsOnlyTheGivenRange() {
+        long[] origin = widen(new DatasetGenerator(1L).generate(Distribution.UNIFORM, 1000));
+        for (LongSortAlgorithm algorithm : LongSortAlgorithm.values()) {
+            long[] target = origin.clone();
+            long[] expected = origin.clone();
+            Arrays.sort(expected, 100, 900);
+            LongSort sort = algorithm.create();
+            sort.setTarget(target, 100, 800);
+            sort.sort();
+            assertArrayEquals(algorithm.toString(), expected, target);
+        }
+    }
+
+    private static long[] widen(int[] values) {
+        long[] result = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = ((long) values[i] << 32) | (values[i] & 0xFFFFFFFFL);
+        }
+        return result;
+    }
+
+    private static void check(LongSortAlgorithm algorithm, int parallelism, long[] target, Distribution distribution) {
+        long[] expected = target.clone();
+        Arrays.sort(expected);
+        LongSort sort = algorithm.create();
+        sort.setParallelism(parallelism);
+        try {
+            sort.setTarget(target);
+            sort.sort();
+        } finally {
+            sort.shutdown();
+        }
+        assertArrayEquals(algorithm + "," + distribution + ",n=" + target.length + ",parallelism=" + parallelism,
+                expected, target);
+    }
+}
@@ -0,0 +1,126 @@
+package com.bj.zzq.sort;
+
+import com.bj.zzq.sort.data.DatasetGenerator;
+import com.bj.zzq.sort.data.Distribution;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Selection和先排序再取下标的结果比较，并检查选出的位置左边都不大于它、右边都不小于它
+ */
+public class SelectionTest {
+    private static final int[] SIZES = {1, 2, 15, 16, 17, 100, 599, 601, 10000, 100000};
+
+    @Test
+    public void selectMatchesSortedIndex() {
+        DatasetGenerator generator = new DatasetGenerator(20190408L);
+        for (Distribution distribution : Distribution.values()) {
+            for (int size : SIZES) {
+                int[] origin = generator.generate(distribution, size);
+                int[] sorted = origin.clone();
+                Arrays.sort(sorted);
+                for (int index : new int[]{0, size / 10, size / 2, size - 1 - size / 100, size - 1}) {
+                    String message = distribution + ",n=" + size + ",index=" + index;
+                    int[] target = origin.clone();
+                    Selection.select(target, 0, size - 1, index);
+                    assertEquals(message, sorted[index], target[index]);
+                    assertPartitioned(message, target, 0, size - 1, index);
+
+                    Integer[] boxed = box(origin);
+                    Selection.select(boxed, 0, size - 1, index);
+                    assertEquals("Integer[]," + message, sorted[index], boxed[index].intValue());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void selectWithinRange() {
+        int[] origin = new DatasetGenerator(1L).generate(Distribution.UNIFORM, 5000);
+        int[] target = origin.clone();
+        Selection.select(target, 1000, 3999, 2500);
+        int[] expected = Arrays.copyOfRange(origin, 1000, 4000);
+        Arrays.sort(expected);
+        assertEquals(expected[1500], target[2500]);
+        //范围外的数据不动
+        assertTrue(Arrays.equals(Arrays.copyOfRange(origin, 0, 1000), Arrays.copyOfRange(target, 0, 1000)));
+        assertTrue(Arrays.equals(Arrays.copyOfRange(origin, 4000, 5000), Arrays.copyOfRange(target, 4000, 5000)));
+    }
+
+    @Test
+    public void selectOnEqualValues() {
+        int[] target = new int[100000];
+        Arrays.fill(target, 7);
+        Selection.select(target, 0, target.length - 1, 12345);
+        assertEquals(7, target[12345]);
+    }
+
+    @Test
+    public void selectAllMatchesSortedIndexes() {
+        DatasetGenerator generator = new DatasetGenerator(20190408L);
+        for (Distribution distribution : Distribution.values()) {
+            for (int size : SIZES) {
+                int[] origin = generator.generate(distribution, size);
+                int[] sorted = origin.clone();
+                Arrays.sort(sorted);
+                //分位点、两端、重复的位置
+                int[] indexes = {0, size / 100, size / 4, size / 2, size / 2, size * 3 / 4, size * 99 / 100, size - 1};
+                Arrays.sort(indexes);
+                String message = distribution + ",n=" + size;
+                int[] target = origin.clone();
+                Selection.selectAll(target, 0, size - 1, indexes);
+                Integer[] boxed = box(origin);
+                Selection.selectAll(boxed, 0, size - 1, indexes);
+                for (int index : indexes) {
+                    assertEquals(message + ",index=" + index, sorted[index], target[index]);
+                    assertPartitioned(message + ",index=" + index, target, 0, size - 1, index);
+                    assertEquals("Integer[]," + message + ",index=" + index, sorted[index], boxed[index].intValue());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void selectAllEveryIndexSorts() {
+        int[] target = new DatasetGenerator(2L).generate(Distribution.ZIPF, 3000);
+        int[] expected = target.clone();
+        Arrays.sort(expected);
+        int[] indexes = new int[target.length];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = i;
+        }
+        Selection.selectAll(target, 0, target.length - 1, indexes);
+        assertTrue(Arrays.equals(expected, target));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void selectAllRejectsUnsortedIndexes() {
+        Selection.selectAll(new int[10], 0, 9, new int[]{5, 2});
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void rejectsIndexOutsideRange() {
+        Selection.select(new int[10], 0, 9, 10);
+    }
+
+    static void assertPartitioned(String message, int[] target, int left, int right, int index) {
+        for (int i = left; i < index; i++) {
+            assertTrue(message + ",left " + i, target[i] <= target[index]);
+        }
+        for (int i = index + 1; i <= right; i++) {
+            assertTrue(message + ",right " + i, target[i] >= target[index]);
+        }
+    }
+
+    static Integer[] box(int[] values) {
+        Integer[] boxed = new Integer[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boxed[i] = values[i];
+        }
+        return boxed;
+    }
+}
@@ -0,0 +1,68 @@
+package com.bj.zzq.sort;
+
+import com.bj.zzq.sort.data.DatasetGenerator;
+import com.bj.zzq.sort.data.Distribution;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * SortAlgorithm登记的每个算法，在各个分布、各个规模上和Arrays.sort的结果比较
+ */
+public class SortAlgorithmTest {
+    private static final int[] SIZES = {0, 1, 2, 3, 9, 10, 17, 100, 1000, 10000};
+    private static final int PARALLEL_SIZE = 300000;
+
+    @Test
+    public void sortsLikeArraysSort() {
+        DatasetGenerator generator = new DatasetGenerator(20190408L);
+        for (SortAlgorithm algorithm : SortAlgorithm.values()) {
+            for (Distribution distribution : Distribution.values()) {
+                for (int size : SIZES) {
+                    if (size <= algorithm.getMaxSize()) {
+                        check(algorithm, 1, generator.generateBoxed(distribution, size), distribution);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sortsInParallel() {
+        DatasetGenerator generator = new DatasetGenerator(20190408L);
+        for (SortAlgorithm algorithm : SortAlgorithm.values()) {
+            if (!algorithm.isParallel()) {
+                continue;
+            }
+            for (Distribution distribution : Distribution.values()) {
+                check(algorithm, 4, generator.generateBoxed(distribution, PARALLEL_SIZE), distribution);
+            }
+        }
+    }
+
+    @Test
+    public void sortsNegativeAndExtremeValues() {
+        Integer[] origin = {0, -1, Integer.MIN_VALUE, Integer.MAX_VALUE, 5, -5, Integer.MIN_VALUE, 1, -1, Integer.MAX_VALUE,
+                3, -300, 300, 0, 65536, -65536, 255, -256, 17, -17};
+        for (SortAlgorithm algorithm : SortAlgorithm.values()) {
+            check(algorithm, 1, origin.clone(), null);
+        }
+    }
+
+    private static void check(SortAlgorithm algorithm, int parallelism, Integer[] target, Distribution distribution) {
+        Integer[] expected = target.clone();
+        Arrays.sort(expected);
+        Sort sort = algorithm.create();
+        sort.setParallelism(parallelism);
+        try {
+            sort.setTarget(target);
+            sort.sort();
+        } finally {
+            sort.shutdown();
+        }
+        assertArrayEquals(algorithm + "," + distribution + ",n=" + target.length + ",parallelism=" + parallelism,
+                expected, target);
+    }
+}
@@ -0,0 +1,69 @@
+package com.bj.zzq.sort;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertSame;
+
+/**
+ * 归并排序的稳定性：值相等的Integer是不同的对象，排序后它们的先后次序要和原数组一致。
+ * Arrays.sort(Object[])是稳定的，结果逐个按引用比较
+ */
+public class StableMergeSortTest {
+    private static final int[] SIZES = {2, 17, 100, 1000, 100000};
+    //大于127的值Integer.valueOf每次都新建对象，不会共用缓存
+    private static final int BASE = 1000;
+
+    @Test
+    public void mergeSortIsStable() {
+        checkStable("MergeSort", MergeSort::new, 1);
+    }
+
+    @Test
+    public void parallelMergeSortIsStable() {
+        checkStable("ParallelMergeSort", ParallelMergeSort::new, 1);
+        checkStable("ParallelMergeSort", ParallelMergeSort::new, 4);
+    }
+
+    @Test
+    public void adaptiveMergeSortIsStable() {
+        checkStable("AdaptiveMergeSort", AdaptiveMergeSort::new, 1);
+    }
+
+    @Test
+    public void inPlaceMergeSortIsStable() {
+        checkStable("InPlaceMergeSort", InPlaceMergeSort::new, 1);
+    }
+
+    private static void checkStable(String name, Supplier<Sort> factory, int parallelism) {
+        SplittableRandom random = new SplittableRandom(20190408L);
+        for (int size : SIZES) {
+            //不同值的个数从很少到和规模相当
+            for (int distinct : new int[]{2, 16, Math.max(2, size / 4)}) {
+                Integer[] target = new Integer[size];
+                for (int i = 0; i < size; i++) {
+                    target[i] = Integer.valueOf(BASE + random.nextInt(distinct));
+                }
+                //一部分数据做成升序段，走到自适应归并的run检测和galloping
+                Arrays.sort(target, size / 3, size / 2);
+                Integer[] expected = target.clone();
+                Arrays.sort(expected);
+                Sort sort = factory.get();
+                sort.setParallelism(parallelism);
+                try {
+                    sort.setTarget(target);
+                    sort.sort();
+                } finally {
+                    sort.shutdown();
+                }
+                for (int i = 0; i < size; i++) {
+                    assertSame(name + ",n=" + size + ",distinct=" + distinct + ",parallelism=" + parallelism + ",i=" + i,
+                            expected[i], target[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.bj.zzq.sort;
+
+import com.bj.zzq.sort.data.DatasetGenerator;
+import com.bj.zzq.sort.data.Distribution;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * TopK的数组模式和流模式，和先排序再截取的结果比较；k取0、1、中间值、等于n和大于n
+ */
+public class TopKTest {
+    private static final int[] SIZES = {0, 1, 2, 17, 1000, 100000};
+
+    @Test
+    public void arrayModeMatchesSortAndSlice() {
+        DatasetGenerator generator = new DatasetGenerator(20190408L);
+        for (Distribution distribution : Distribution.values()) {
+            for (int size : SIZES) {
+                int[] origin = generator.generate(distribution, size);
+                int[] sorted = origin.clone();
+                Arrays.sort(sorted);
+                for (int k : ks(size)) {
+                    String message = distribution + ",n=" + size + ",k=" + k;
+                    assertArrayEquals("smallest," + message, smallest(sorted, k), TopK.smallest(origin.clone(), k));
+                    assertArrayEquals("largest," + message, largest(sorted, k), TopK.largest(origin.clone(), k));
+                    assertArrayEquals("Integer[] smallest," + message, SelectionTest.box(smallest(sorted, k)),
+                            TopK.smallest(SelectionTest.box(origin), k));
+                    assertArrayEquals("Integer[] largest," + message, SelectionTest.box(largest(sorted, k)),
+                            TopK.largest(SelectionTest.box(origin), k));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void streamModeMatchesSortAndSlice() {
+        DatasetGenerator generator = new DatasetGenerator(20190408L);
+        for (Distribution distribution : Distribution.values()) {
+            for (int size : SIZES) {
+                int[] origin = generator.generate(distribution, size);
+                int[] sorted = origin.clone();
+                Arrays.sort(sorted);
+                for (int k : ks(size)) {
+                    String message = distribution + ",n=" + size + ",k=" + k;
+                    assertArrayEquals("smallest," + message, smallest(sorted, k), TopK.smallest(IntStream.of(origin), k));
+                    assertArrayEquals("largest," + message, largest(sorted, k), TopK.largest(IntStream.of(origin), k));
+                    assertArrayEquals("iterator smallest," + message, smallest(sorted, k),
+                            TopK.smallest(IntStream.of(origin).iterator(), k));
+                    assertArrayEquals("iterator largest," + message, largest(sorted, k),
+                            TopK.largest(IntStream.of(origin).iterator(), k));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void handlesDuplicatesAndExtremes() {
+        int[] origin = new int[5000];
+        for (int i = 0; i < origin.length; i++) {
+            origin[i] = i % 3 == 0 ? Integer.MIN_VALUE : i % 3 == 1 ? Integer.MAX_VALUE : 0;
+        }
+        int[] sorted = origin.clone();
+        Arrays.sort(sorted);
+        for (int k : new int[]{1, 1666, 1667, 1668, 3334, 4999}) {
+            assertArrayEquals("smallest,k=" + k, smallest(sorted, k), TopK.smallest(origin.clone(), k));
+            assertArrayEquals("largest,k=" + k, largest(sorted, k), TopK.largest(origin.clone(), k));
+            assertArrayEquals("stream smallest,k=" + k, smallest(sorted, k), TopK.smallest(IntStream.of(origin), k));
+            assertArrayEquals("stream largest,k=" + k, largest(sorted, k), TopK.largest(IntStream.of(origin), k));
+        }
+    }
+
+    @Test
+    public void streamLargerThanInitialHeap() {
+        //k超过堆的初始容量1024，堆要扩容
+        int k = 5000;
+        int[] result = TopK.largest(IntStream.range(0, 100000), k);
+        assertEquals(k, result.length);
+        for (int i = 0; i < k; i++) {
+            assertEquals(99999 - i, result[i]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeK() {
+        TopK.smallest(new int[10], -1);
+    }
+
+    private static int[] ks(int size) {
+        return new int[]{0, 1, size / 2, size, size + 5};
+    }
+
+    private static int[] smallest(int[] sorted, int k) {
+        return Arrays.copyOf(sorted, Math.min(k, sorted.length));
+    }
+
+    private static int[] largest(int[] sorted, int k) {
+        int[] result = new int[Math.min(k, sorted.length)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = sorted[sorted.length - 1 - i];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,138 @@
+package com.bj.zzq.sort.external;
+
+import com.bj.zzq.sort.IntSort;
+import com.bj.zzq.sort.data.DatasetFile;
+import com.bj.zzq.sort.data.DatasetGenerator;
+import com.bj.zzq.sort.data.Distribution;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * ExternalSort写文件再读回来和Arrays.sort比较。内存预算取最小值、归并路数很小，几万个数就会有多个段和多趟归并；
+ * 排序结束或者中途出错后，临时目录里都不能留下段文件
+ */
+public class ExternalSortTest {
+    private static final long MIN_MEMORY_BUDGET = 1 << 16;//每块8192个数
+    private File dir;
+    private File tempDir;
+
+    @Before
+    public void createDirs() throws IOException {
+        dir = Files.createTempDirectory("external-sort-test").toFile();
+        tempDir = new File(dir, "runs");
+        assertTrue(tempDir.mkdir());
+    }
+
+    @After
+    public void deleteDirs() {
+        deleteRecursively(dir);
+    }
+
+    @Test
+    public void roundTripWithSmallFanIn() throws IOException {
+        DatasetGenerator generator = new DatasetGenerator(20190408L);
+        for (Distribution distribution : Distribution.values()) {
+            for (int fanIn : new int[]{2, 3, 64}) {
+                check(generator.generate(distribution, 100000), fanIn, distribution + ",fanIn=" + fanIn);
+            }
+        }
+    }
+
+    @Test
+    public void roundTripSmallInputs() throws IOException {
+        for (int size : new int[]{0, 1, 2, 8192, 8193}) {
+            check(new DatasetGenerator(1L).generate(Distribution.UNIFORM, size), 2, "n=" + size);
+        }
+    }
+
+    @Test
+    public void mergesInSeveralPasses() throws IOException {
+        ExternalSort sort = check(new DatasetGenerator(1L).generate(Distribution.UNIFORM, 100000), 2, "passes");
+        //100000/8192向上取整13个段，两路归并要4趟
+        assertEquals(13, sort.getRunCount());
+        assertEquals(4, sort.getMergePasses());
+        assertTrue(sort.getBytesRead() >= 100000L * 4 * 5);
+    }
+
+    @Test
+    public void deletesRunsWhenSortingFails() throws IOException {
+        int[] data = new DatasetGenerator(1L).generate(Distribution.UNIFORM, 100000);
+        File input = new File(dir, "input.bin");
+        DatasetFile.write(input, data, 0, data.length);
+        ExternalSort sort = newSort(2);
+        //前几块正常写成段，之后内存排序出错
+        sort.setEngine(new FailingSort(5));
+        try {
+            sort.sort(input, new File(dir, "output.bin"));
+            fail("排序应该失败");
+        } catch (IllegalStateException expected) {
+        }
+        assertNoRunsLeft("failed run creation");
+    }
+
+    private ExternalSort check(int[] data, int fanIn, String message) throws IOException {
+        File input = new File(dir, "input.bin");
+        File output = new File(dir, "output.bin");
+        DatasetFile.write(input, data, 0, data.length);
+        ExternalSort sort = newSort(fanIn);
+        sort.sort(input, output);
+        int[] expected = data.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(message, expected, DatasetFile.read(output));
+        assertNoRunsLeft(message);
+        return sort;
+    }
+
+    private ExternalSort newSort(int fanIn) {
+        ExternalSort sort = new ExternalSort();
+        sort.setMemoryBudget(MIN_MEMORY_BUDGET);
+        sort.setFanIn(fanIn);
+        sort.setTempDir(tempDir);
+        return sort;
+    }
+
+    private void assertNoRunsLeft(String message) {
+        String[] left = tempDir.list();
+        assertEquals(message + "," + Arrays.toString(left), 0, left.length);
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * 排好前limit块之后抛异常，模拟生成有序段时出错
+     */
+    private static class FailingSort extends IntSort {
+        private int remaining;
+
+        FailingSort(int limit) {
+            this.remaining = limit;
+        }
+
+        @Override
+        public void sort() {
+            if (remaining-- == 0) {
+                throw new IllegalStateException("injected failure");
+            }
+            Arrays.sort(target, offset, offset + length);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.bj.zzq.sort.offheap;
+
+import com.bj.zzq.sort.data.DatasetGenerator;
+import com.bj.zzq.sort.data.Distribution;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 堆外数组用1024个int一段，几千个数就跨很多段，排序结果和Arrays.sort比较
+ */
+public class OffHeapSortTest {
+    private static final int SEGMENT_SHIFT = 10;
+    private static final int[] SIZES = {0, 1, 2, 33, 1023, 1024, 1025, 5000, 20000};
+    private static final int PARALLEL_SIZE = 200000;
+
+    @Test
+    public void indexesAcrossSegments() {
+        int size = 3 * (1 << SEGMENT_SHIFT) + 7;
+        OffHeapIntArray array = OffHeapIntArray.allocate(size, SEGMENT_SHIFT);
+        assertEquals(size, array.length());
+        for (long i = 0; i < size; i++) {
+            array.put(i, (int) i * 7 - 1);
+        }
+        for (long i = 0; i < size; i++) {
+            assertEquals((int) i * 7 - 1, array.get(i));
+        }
+        array.swap(1023, 1024);
+        assertEquals(1024 * 7 - 1, array.get(1023));
+        assertEquals(1023 * 7 - 1, array.get(1024));
+    }
+
+    @Test
+    public void bulkCopiesAcrossSegments() {
+        int[] origin = new DatasetGenerator(7L).generate(Distribution.UNIFORM, 3000);
+        OffHeapIntArray array = OffHeapIntArray.allocate(4000, SEGMENT_SHIFT);
+        array.put(500, origin, origin.length);
+        int[] copy = new int[origin.length];
+        array.get(500, copy, copy.length);
+        assertArrayEquals(origin, copy);
+        for (int i = 0; i < origin.length; i++) {
+            assertEquals(origin[i], array.get(500 + i));
+        }
+    }
+
+    @Test
+    public void sortsLikeArraysSort() {
+        DatasetGenerator generator = new DatasetGenerator(20190408L);
+        for (OffHeapSortAlgorithm algorithm : OffHeapSortAlgorithm.values()) {
+            for (Distribution distribution : Distribution.values()) {
+                for (int size : SIZES) {
+                    check(algorithm.create(), 1, generator.generate(distribution, size), algorithm + "," + distribution);
+                }
+            }
+        }
+    }
+
+    /**
+     * 粒度调到最小，并行时大桶/大区间拆成很多叶子任务
+     */
+    @Test
+    public void sortsInParallel() {
+        DatasetGenerator generator = new DatasetGenerator(20190408L);
+        for (Distribution distribution : Distribution.values()) {
+            OffHeapIntQuickSort quickSort = new OffHeapIntQuickSort();
+            quickSort.setGranularity(1);
+            check(quickSort, 4, generator.generate(distribution, PARALLEL_SIZE), "QUICK_SORT," + distribution);
+            OffHeapIntCardinalSort cardinalSort = new OffHeapIntCardinalSort();
+            cardinalSort.setGranularity(1);
+            check(cardinalSort, 4, generator.generate(distribution, PARALLEL_SIZE), "CARDINAL_SORT," + distribution);
+        }
+    }
+
+    @Test
+    public void sortsNegativeAndExtremeValues() {
+        int[] origin = new int[5000];
+        for (int i = 0; i < origin.length; i++) {
+            origin[i] = i % 3 == 0 ? Integer.MIN_VALUE + i : i % 3 == 1 ? Integer.MAX_VALUE - i : -i;
+        }
+        for (OffHeapSortAlgorithm algorithm : OffHeapSortAlgorithm.values()) {
+            check(algorithm.create(), 1, origin.clone(), algorithm.toString());
+        }
+    }
+
+    @Test
+    public void sortsOnlyTheGivenRange() {
+        int[] origin = new DatasetGenerator(1L).generate(Distribution.UNIFORM, 10000);
+        int[] expected = origin.clone();
+        Arrays.sort(expected, 1000, 9000);
+        for (OffHeapSortAlgorithm algorithm : OffHeapSortAlgorithm.values()) {
+            OffHeapIntArray array = OffHeapIntArray.allocate(origin.length, SEGMENT_SHIFT);
+            array.put(0, origin, origin.length);
+            OffHeapIntSort sort = algorithm.create();
+            sort.setTarget(array, 1000, 8000);
+            sort.sort();
+            int[] actual = new int[origin.length];
+            array.get(0, actual, actual.length);
+            assertArrayEquals(algorithm.toString(), expected, actual);
+        }
+    }
+
+    private static void check(OffHeapIntSort sort, int parallelism, int[] origin, String message) {
+        int[] expected = origin.clone();
+        Arrays.sort(expected);
+        OffHeapIntArray array = OffHeapIntArray.allocate(origin.length, SEGMENT_SHIFT);
+        array.put(0, origin, origin.length);
+        sort.setParallelism(parallelism);
+        try {
+            sort.setTarget(array);
+            sort.sort();
+        } finally {
+            sort.shutdown();
+        }
+        int[] actual = new int[origin.length];
+        array.get(0, actual, actual.length);
+        assertArrayEquals(message + ",n=" + origin.length + ",parallelism=" + parallelism, expected, actual);
+    }
+}